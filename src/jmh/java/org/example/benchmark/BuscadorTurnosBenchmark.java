@@ -0,0 +1,82 @@
+package org.example.benchmark;
+
+import org.example.entidades.Departamento;
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.Medico;
+import org.example.entidades.Sala;
+import org.example.servicio.BuscadorTurnos;
+import org.example.servicio.CitaException;
+import org.example.servicio.CitaManager;
+import org.example.servicio.ConsultaTurnos;
+import org.example.servicio.TurnoLibre;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia de {@link BuscadorTurnos#buscar} con agendas casi llenas: cada médico y cada sala
+ * tienen un día de turnos de 30 minutos ocupados, desfasados entre sí, así la búsqueda tiene que
+ * saltar por muchas agendas antes del primer hueco común. El objetivo es menos de un milisegundo
+ * con cientos de médicos y salas; con un candidato por médico el costo no crece con médicos por
+ * salas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BuscadorTurnosBenchmark {
+    private static final BigDecimal COSTO = new BigDecimal("1000.00");
+    private static final int TURNOS_OCUPADOS = 48;
+
+    @Param({"10", "100", "300"})
+    public int recursos;
+
+    @Param({"1", "10"})
+    public int cantidad;
+
+    private BuscadorTurnos buscador;
+    private List<Departamento> departamentos;
+    private ConsultaTurnos consulta;
+
+    @Setup
+    public void preparar() throws CitaException {
+        CitaManager citaManager = new CitaManager();
+        Departamento departamento = Fixtures.departamento(EspecialidadMedica.TRAUMATOLOGIA);
+        Medico[] medicos = new Medico[recursos];
+        Sala[] salas = new Sala[recursos];
+        for (int i = 0; i < recursos; i++) {
+            medicos[i] = Fixtures.medico(i, EspecialidadMedica.TRAUMATOLOGIA);
+            departamento.agregarMedico(medicos[i]);
+            salas[i] = departamento.crearSala("T-" + i, "Consultorio");
+        }
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withHour(8).withMinute(0).withSecond(0).withNano(0);
+        // El médico i atiende en la sala i+1: ningún par queda libre hasta que se acaban los turnos
+        for (int i = 0; i < recursos; i++) {
+            for (int turno = 0; turno < TURNOS_OCUPADOS; turno++) {
+                citaManager.programarCita(Fixtures.paciente(i), medicos[i], salas[(i + 1) % recursos],
+                        base.plusMinutes(30L * turno), COSTO);
+            }
+        }
+        buscador = new BuscadorTurnos(citaManager);
+        departamentos = List.of(departamento);
+        consulta = ConsultaTurnos.builder()
+                .especialidad(EspecialidadMedica.TRAUMATOLOGIA)
+                .desde(base)
+                .cantidad(cantidad)
+                .build();
+    }
+
+    @Benchmark
+    public List<TurnoLibre> buscar() {
+        return buscador.buscar(departamentos, consulta);
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.example.entidades.Departamento;
+import org.example.entidades.Medico;
+import org.example.entidades.Sala;
+import org.example.servicio.EstructuraHospitalService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lecturas de la estructura del hospital con y sin caché de segundo nivel. Además del tiempo
+ * reporta {@code sentenciasBd}: sentencias JDBC preparadas por operación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CacheEstructuraBenchmark {
+
+    @Param({"true", "false"})
+    public boolean cache;
+
+    private EscenarioHospital escenario;
+    private EstructuraHospitalService estructura;
+    private Statistics estadisticas;
+    private Long idDepartamento;
+    private int siguiente;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Sentencias {
+        public long sentenciasBd;
+
+        @Setup(Level.Iteration)
+        public void reiniciar() {
+            sentenciasBd = 0;
+        }
+    }
+
+    @Setup
+    public void preparar() {
+        escenario = EscenarioHospital.sembrar("cache" + cache, 0, Map.of(
+                "hibernate.cache.use_second_level_cache", cache,
+                "hibernate.cache.use_query_cache", cache,
+                "jakarta.persistence.sharedCache.mode", cache ? "ENABLE_SELECTIVE" : "NONE",
+                "hibernate.generate_statistics", true));
+        estructura = new EstructuraHospitalService(escenario.emf);
+        estadisticas = escenario.emf.unwrap(SessionFactory.class).getStatistics();
+        idDepartamento = escenario.medicos.get(0).getDepartamento().getId();
+    }
+
+    @TearDown
+    public void cerrar() {
+        escenario.cerrar();
+    }
+
+    @Benchmark
+    public Medico medicoPorDni(Sentencias sentencias) {
+        long antes = estadisticas.getPrepareStatementCount();
+        Medico medico = escenario.medicos.get(siguiente++ % escenario.medicos.size());
+        Medico encontrado = estructura.buscarMedicoPorDni(medico.getDni()).orElseThrow();
+        sentencias.sentenciasBd += estadisticas.getPrepareStatementCount() - antes;
+        return encontrado;
+    }
+
+    @Benchmark
+    public Sala salaPorNumero(Sentencias sentencias) {
+        long antes = estadisticas.getPrepareStatementCount();
+        Sala sala = escenario.salas.get(siguiente++ % escenario.salas.size());
+        Sala encontrada = estructura.buscarSalaPorNumero(sala.getNumero()).orElseThrow();
+        sentencias.sentenciasBd += estadisticas.getPrepareStatementCount() - antes;
+        return encontrada;
+    }
+
+    // Departamento con sus médicos y salas, cada vez en un EntityManager nuevo
+    @Benchmark
+    public int departamentoConColecciones(Sentencias sentencias) {
+        long antes = estadisticas.getPrepareStatementCount();
+        EntityManager em = escenario.emf.createEntityManager();
+        try {
+            Departamento departamento = em.find(Departamento.class, idDepartamento);
+            int cantidad = departamento.getMedicos().size() + departamento.getSalas().size();
+            sentencias.sentenciasBd += estadisticas.getPrepareStatementCount() - antes;
+            return cantidad;
+        } finally {
+            em.close();
+        }
+    }
+}
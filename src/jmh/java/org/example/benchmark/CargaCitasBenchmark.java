@@ -0,0 +1,102 @@
+package org.example.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.example.entidades.Cita;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Sala;
+import org.example.servicio.CitaManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo de arranque en frío de {@link CitaManager}: snapshot binario, CSV y recarga por JPA.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CargaCitasBenchmark {
+
+    @Param({"10000", "100000"})
+    public int citas;
+
+    private EscenarioHospital escenario;
+    private Path snapshot;
+    private Path csv;
+    private final Map<Long, Paciente> pacientesPorId = new HashMap<>();
+    private final Map<Long, Medico> medicosPorId = new HashMap<>();
+    private final Map<Long, Sala> salasPorId = new HashMap<>();
+    private final Map<String, Paciente> pacientesPorDni = new HashMap<>();
+    private final Map<String, Medico> medicosPorDni = new HashMap<>();
+    private final Map<String, Sala> salasPorNumero = new HashMap<>();
+
+    @Setup
+    public void preparar() throws Exception {
+        escenario = EscenarioHospital.sembrar("carga" + citas, citas);
+        for (Paciente paciente : escenario.pacientes) {
+            pacientesPorId.put(paciente.getId(), paciente);
+            pacientesPorDni.put(paciente.getDni(), paciente);
+        }
+        for (Medico medico : escenario.medicos) {
+            medicosPorId.put(medico.getId(), medico);
+            medicosPorDni.put(medico.getDni(), medico);
+        }
+        for (Sala sala : escenario.salas) {
+            salasPorId.put(sala.getId(), sala);
+            salasPorNumero.put(sala.getNumero(), sala);
+        }
+
+        CitaManager origen = new CitaManager();
+        origen.programarCitas(escenario.solicitudes(0, citas));
+        snapshot = Files.createTempFile("citas", ".snap");
+        csv = Files.createTempFile("citas", ".csv");
+        origen.guardarSnapshot(snapshot.toString());
+        origen.guardarCitas(csv.toString());
+    }
+
+    @TearDown
+    public void cerrar() throws Exception {
+        escenario.cerrar();
+        Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(csv);
+    }
+
+    @Benchmark
+    public CitaManager snapshot() throws Exception {
+        CitaManager citaManager = new CitaManager();
+        citaManager.cargarSnapshot(snapshot.toString(), pacientesPorId, medicosPorId, salasPorId);
+        return citaManager;
+    }
+
+    @Benchmark
+    public CitaManager csv() throws Exception {
+        CitaManager citaManager = new CitaManager();
+        citaManager.cargarCitas(csv.toString(), pacientesPorDni, medicosPorDni, salasPorNumero);
+        return citaManager;
+    }
+
+    @Benchmark
+    public List<Cita> jpa() {
+        EntityManager em = escenario.emf.createEntityManager();
+        try {
+            return em.createQuery("SELECT c FROM Cita c JOIN FETCH c.paciente JOIN FETCH c.medico"
+                    + " JOIN FETCH c.sala", Cita.class).getResultList();
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.benchmark;
+
+import org.example.entidades.Cita;
+import org.example.entidades.Departamento;
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Sala;
+import org.example.servicio.CitaCsvCodec;
+import org.example.servicio.CitaManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escalado de {@link CitaManager#cargarCitasEnParalelo} con la cantidad de hilos sobre un archivo
+ * generado sin base de datos, con una de cada diez observaciones entre comillas y con saltos de
+ * línea. {@code hilos = 0} usa la carga secuencial como referencia. Antes de medir se comprueba
+ * que la carga paralela deja los mismos índices, en el mismo orden, que la secuencial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CargaParalelaCitasBenchmark {
+    private static final int MEDICOS = 50;
+    private static final int PACIENTES = 10_000;
+
+    @Param({"10000000"})
+    public int lineas;
+
+    @Param({"0", "1", "2", "4", "8"})
+    public int hilos;
+
+    private Path archivo;
+    private ForkJoinPool pool;
+    private final Map<String, Paciente> pacientes = new HashMap<>();
+    private final Map<String, Medico> medicos = new HashMap<>();
+    private final Map<String, Sala> salas = new HashMap<>();
+
+    @Setup
+    public void preparar() throws Exception {
+        Departamento departamento = Fixtures.departamento(EspecialidadMedica.CARDIOLOGIA);
+        Medico[] listaMedicos = new Medico[MEDICOS];
+        Sala[] listaSalas = new Sala[MEDICOS];
+        for (int i = 0; i < MEDICOS; i++) {
+            listaMedicos[i] = Fixtures.medico(i, EspecialidadMedica.CARDIOLOGIA);
+            departamento.agregarMedico(listaMedicos[i]);
+            listaSalas[i] = departamento.crearSala("C-" + i, "Consultorio");
+            medicos.put(listaMedicos[i].getDni(), listaMedicos[i]);
+            salas.put(listaSalas[i].getNumero(), listaSalas[i]);
+        }
+        Paciente[] listaPacientes = new Paciente[PACIENTES];
+        for (int i = 0; i < PACIENTES; i++) {
+            listaPacientes[i] = Fixtures.paciente(i);
+            pacientes.put(listaPacientes[i].getDni(), listaPacientes[i]);
+        }
+
+        archivo = Files.createTempFile("citas-paralelo", ".csv");
+        CitaCsvCodec codec = new CitaCsvCodec();
+        LocalDateTime base = LocalDateTime.of(2030, 1, 1, 8, 0);
+        BigDecimal costo = new BigDecimal("1000.00");
+        try (BufferedWriter writer = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < lineas; i++) {
+                int par = i % MEDICOS;
+                codec.escribir(Cita.builder()
+                        .paciente(listaPacientes[i % PACIENTES])
+                        .medico(listaMedicos[par])
+                        .sala(listaSalas[par])
+                        .fechaHora(base.plusMinutes(30L * (i / MEDICOS)))
+                        .costo(costo)
+                        .observaciones(i % 10 == 0 ? "Control, \"urgente\"\nrepetir estudios" : "Control")
+                        .build(), writer);
+            }
+        }
+        pool = hilos > 0 ? new ForkJoinPool(hilos) : null;
+        verificarOrden(listaMedicos[0], listaPacientes[0]);
+    }
+
+    @TearDown
+    public void cerrar() throws Exception {
+        if (pool != null) {
+            pool.shutdown();
+        }
+        Files.deleteIfExists(archivo);
+    }
+
+    @Benchmark
+    public CitaManager cargar() throws Exception {
+        CitaManager citaManager = new CitaManager();
+        if (pool == null) {
+            citaManager.cargarCitas(archivo.toString(), pacientes, medicos, salas);
+        } else {
+            citaManager.cargarCitasEnParalelo(archivo.toString(), pacientes, medicos, salas, pool);
+        }
+        return citaManager;
+    }
+
+    private void verificarOrden(Medico medico, Paciente paciente) throws Exception {
+        if (pool == null) {
+            return;
+        }
+        CitaManager secuencial = new CitaManager();
+        secuencial.cargarCitas(archivo.toString(), pacientes, medicos, salas);
+        CitaManager paralelo = new CitaManager();
+        paralelo.cargarCitasEnParalelo(archivo.toString(), pacientes, medicos, salas, pool);
+        comparar(secuencial.getCitasPorMedico(medico), paralelo.getCitasPorMedico(medico));
+        comparar(secuencial.getCitasPorPaciente(paciente), paralelo.getCitasPorPaciente(paciente));
+    }
+
+    private static void comparar(List<Cita> esperadas, List<Cita> obtenidas) {
+        if (esperadas.size() != obtenidas.size()) {
+            throw new IllegalStateException("Cantidad distinta: " + esperadas.size() + " / " + obtenidas.size());
+        }
+        for (int i = 0; i < esperadas.size(); i++) {
+            Cita esperada = esperadas.get(i);
+            Cita obtenida = obtenidas.get(i);
+            if (!esperada.getFechaHora().equals(obtenida.getFechaHora())
+                    || !esperada.getObservaciones().equals(obtenida.getObservaciones())
+                    || esperada.getPaciente() != obtenida.getPaciente()) {
+                throw new IllegalStateException("Orden distinto en la posición " + i);
+            }
+        }
+    }
+}
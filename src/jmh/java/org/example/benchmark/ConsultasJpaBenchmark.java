@@ -0,0 +1,140 @@
+package org.example.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.example.entidades.Cita;
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.EstadoCita;
+import org.example.entidades.Medico;
+import org.example.servicio.CitaResumen;
+import org.example.servicio.ConsultaCitasService;
+import org.example.servicio.EstadisticasHospital;
+import org.example.servicio.EstadisticasService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia de las consultas que ejecuta {@code Main} contra una base H2 en memoria sembrada
+ * con la cantidad de citas indicada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ConsultasJpaBenchmark {
+
+    @Param({"1000", "100000"})
+    public int escala;
+
+    private EscenarioHospital escenario;
+    private ConsultaCitasService consultaCitas;
+    private EstadisticasService estadisticas;
+
+    @Setup
+    public void preparar() {
+        escenario = EscenarioHospital.sembrar("consultas" + escala, escala);
+        consultaCitas = new ConsultaCitasService(escenario.emf);
+        estadisticas = new EstadisticasService(escenario.emf);
+    }
+
+    @TearDown
+    public void cerrar() {
+        escenario.cerrar();
+    }
+
+    // Primeras 100 citas por fecha, navegando las asociaciones como en Main
+    @Benchmark
+    public int listarCitas() {
+        EntityManager em = escenario.emf.createEntityManager();
+        try {
+            List<Cita> citas = em.createQuery("SELECT c FROM Cita c ORDER BY c.fechaHora", Cita.class)
+                    .setMaxResults(100)
+                    .getResultList();
+            int largo = 0;
+            for (Cita cita : citas) {
+                largo += cita.getPaciente().getNombreCompleto().length()
+                        + cita.getMedico().getNombreCompleto().length()
+                        + cita.getSala().getNumero().length();
+            }
+            return largo;
+        } finally {
+            em.close();
+        }
+    }
+
+    // Mismo listado con la proyección de ConsultaCitasService: una sola consulta por llamada
+    @Benchmark
+    public int listarResumenesDelDia() {
+        int largo = 0;
+        for (CitaResumen cita : consultaCitas.listarCitasEntre(escenario.base, escenario.base.plusDays(1))) {
+            largo += cita.getPacienteNombreCompleto().length()
+                    + cita.getMedicoNombreCompleto().length()
+                    + cita.numeroSala().length();
+        }
+        return largo;
+    }
+
+    @Benchmark
+    public long contarMedicosPorEspecialidad() {
+        EntityManager em = escenario.emf.createEntityManager();
+        try {
+            long total = 0;
+            for (EspecialidadMedica especialidad : EspecialidadMedica.values()) {
+                total += em.createQuery(
+                                "SELECT COUNT(m) FROM Medico m WHERE m.especialidad = :esp", Long.class)
+                        .setParameter("esp", especialidad)
+                        .getSingleResult();
+            }
+            return total;
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public long contarCitasPorEstado() {
+        EntityManager em = escenario.emf.createEntityManager();
+        try {
+            long total = 0;
+            for (EstadoCita estado : EstadoCita.values()) {
+                total += em.createQuery(
+                                "SELECT COUNT(c) FROM Cita c WHERE c.estado = :estado", Long.class)
+                        .setParameter("estado", estado)
+                        .getSingleResult();
+            }
+            return total;
+        } finally {
+            em.close();
+        }
+    }
+
+    // Los dos conteos anteriores y los totales con agregados GROUP BY
+    @Benchmark
+    public EstadisticasHospital estadisticasAgrupadas() {
+        return estadisticas.calcular();
+    }
+
+    @Benchmark
+    public List<Cita> citasDeMedicoEnRango() {
+        EntityManager em = escenario.emf.createEntityManager();
+        try {
+            return em.createQuery("SELECT c FROM Cita c WHERE c.medico = :medico"
+                            + " AND c.fechaHora >= :desde AND c.fechaHora < :hasta", Cita.class)
+                    .setParameter("medico", em.getReference(Medico.class,
+                            escenario.medicos.get(0).getId()))
+                    .setParameter("desde", escenario.base)
+                    .setParameter("hasta", escenario.base.plusDays(1))
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.benchmark;
+
+import org.example.entidades.Cita;
+import org.example.entidades.Departamento;
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.EstadoCita;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Sala;
+import org.example.servicio.CitaCsvCodec;
+import org.example.servicio.CitaException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput de codificación y decodificación CSV de una cita con {@link CitaCsvCodec} frente a
+ * la implementación anterior con {@code String.format} y {@code split}, copiada abajo. La ida y
+ * vuelta exacta del formato la comprueba {@code CitaCsvCodecTest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CsvCitaBenchmark {
+    private final CitaCsvCodec codec = new CitaCsvCodec();
+    private Cita cita;
+    private String linea;
+    private String lineaAnterior;
+    private Map<String, Paciente> pacientes;
+    private Map<String, Medico> medicos;
+    private Map<String, Sala> salas;
+
+    @Setup
+    public void preparar() {
+        Departamento departamento = Fixtures.departamento(EspecialidadMedica.NEUROLOGIA);
+        Medico medico = Fixtures.medico(1, EspecialidadMedica.NEUROLOGIA);
+        departamento.agregarMedico(medico);
+        Sala sala = departamento.crearSala("N-1", "Consultorio");
+        Paciente paciente = Fixtures.paciente(1);
+        cita = Cita.builder()
+                .paciente(paciente)
+                .medico(medico)
+                .sala(sala)
+                .fechaHora(LocalDateTime.of(2030, 5, 17, 10, 30))
+                .costo(new BigDecimal("150000.00"))
+                .observaciones("Control anual, traer estudios previos")
+                .build();
+        linea = codec.codificar(cita).toString();
+        lineaAnterior = toCsvStringAnterior(cita);
+        pacientes = Map.of(paciente.getDni(), paciente);
+        medicos = Map.of(medico.getDni(), medico);
+        salas = Map.of(sala.getNumero(), sala);
+    }
+
+    @Benchmark
+    public CharSequence codificar() {
+        return codec.codificar(cita);
+    }
+
+    @Benchmark
+    public String codificarAnterior() {
+        return toCsvStringAnterior(cita);
+    }
+
+    @Benchmark
+    public Cita decodificar() throws CitaException {
+        return codec.decodificar(linea, pacientes, medicos, salas);
+    }
+
+    @Benchmark
+    public Cita decodificarAnterior() throws CitaException {
+        return fromCsvStringAnterior(lineaAnterior, pacientes, medicos, salas);
+    }
+
+    // Implementación anterior de Cita.toCsvString, como referencia
+    private static String toCsvStringAnterior(Cita cita) {
+        return String.format("%s,%s,%s,%s,%s,%s,%s",
+                cita.getPaciente().getDni(),
+                cita.getMedico().getDni(),
+                cita.getSala().getNumero(),
+                cita.getFechaHora().toString(),
+                cita.getCosto().toString(),
+                cita.getEstado().name(),
+                cita.getObservaciones().replaceAll(",", ";"));
+    }
+
+    // Implementación anterior de Cita.fromCsvString, como referencia
+    private static Cita fromCsvStringAnterior(String csvString, Map<String, Paciente> pacientes,
+                                              Map<String, Medico> medicos, Map<String, Sala> salas)
+            throws CitaException {
+        String[] values = csvString.split(",", -1);
+        if (values.length != 7) {
+            throw new CitaException("Formato de CSV inválido para Cita: " + csvString);
+        }
+        Paciente paciente = pacientes.get(values[0]);
+        Medico medico = medicos.get(values[1]);
+        Sala sala = salas.get(values[2]);
+        if (paciente == null || medico == null || sala == null) {
+            throw new CitaException("Referencia no encontrada: " + csvString);
+        }
+        return Cita.builder()
+                .paciente(paciente)
+                .medico(medico)
+                .sala(sala)
+                .fechaHora(LocalDateTime.parse(values[3]))
+                .costo(new BigDecimal(values[4]))
+                .estado(EstadoCita.valueOf(values[5]))
+                .observaciones(values[6].replaceAll(";", ","))
+                .build();
+    }
+}
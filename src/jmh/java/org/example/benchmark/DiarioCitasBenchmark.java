@@ -0,0 +1,121 @@
+package org.example.benchmark;
+
+import org.example.entidades.Departamento;
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Sala;
+import org.example.servicio.CitaException;
+import org.example.servicio.CitaManager;
+import org.example.servicio.CitaServiceConDiario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Reservas por segundo con {@link CitaServiceConDiario} según la ventana de confirmación en
+ * grupo, con 16 hilos reservando a la vez; {@code ventanaMicros = 0} junta en cada {@code fsync}
+ * sólo lo que ya estaba encolado. Otra cantidad de hilos: {@code -PjmhThreads=N}. Al terminar
+ * cada iteración se imprime el promedio de registros por {@code fsync}. El diario se escribe en
+ * el directorio temporal, que debe estar en el disco que se quiere medir.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+public class DiarioCitasBenchmark {
+    private static final BigDecimal COSTO = new BigDecimal("1000.00");
+    private static final int RECURSOS = 256;
+
+    @Param({"0", "100", "500", "1000", "5000"})
+    public long ventanaMicros;
+
+    private Path directorio;
+    private CitaServiceConDiario servicio;
+    private Medico[] medicos;
+    private Sala[] salas;
+    private Paciente[] pacientes;
+    private LocalDateTime base;
+    private final AtomicInteger hilos = new AtomicInteger();
+
+    @Setup(Level.Iteration)
+    public void preparar() throws IOException, CitaException {
+        hilos.set(0);
+        medicos = new Medico[RECURSOS];
+        salas = new Sala[RECURSOS];
+        pacientes = new Paciente[RECURSOS];
+        Departamento departamento = Fixtures.departamento(EspecialidadMedica.MEDICINA_GENERAL);
+        for (int i = 0; i < RECURSOS; i++) {
+            medicos[i] = Fixtures.medico(i, EspecialidadMedica.MEDICINA_GENERAL);
+            departamento.agregarMedico(medicos[i]);
+            salas[i] = departamento.crearSala("C-" + i, "Consultorio");
+            pacientes[i] = Fixtures.paciente(i);
+        }
+        base = LocalDateTime.now().plusDays(1).withNano(0);
+        directorio = Files.createTempDirectory("diario-citas");
+        servicio = CitaServiceConDiario.abrir(directorio, new CitaManager(), Map.of(), Map.of(), Map.of(),
+                Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(ventanaMicros)),
+                CitaServiceConDiario.UMBRAL_COMPACTACION_POR_DEFECTO);
+    }
+
+    @TearDown(Level.Iteration)
+    public void cerrar() throws IOException {
+        System.out.printf("%n%.1f registros por fsync%n", servicio.getRegistrosPorLote());
+        servicio.close();
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    // Turnos propios por hilo, como en ProgramarCitaConcurrenteBenchmark, para no medir rechazos
+    @State(Scope.Thread)
+    public static class Hilo {
+        private static final int MAXIMO_HILOS = 1024;
+        private int id;
+        private long siguiente;
+
+        @Setup(Level.Iteration)
+        public void preparar(DiarioCitasBenchmark benchmark) {
+            id = benchmark.hilos.getAndIncrement() % MAXIMO_HILOS;
+            siguiente = 0;
+        }
+
+        long proximoTurno() {
+            return (siguiente++ * MAXIMO_HILOS + id) * 30L;
+        }
+    }
+
+    @Benchmark
+    public boolean programarCita(Hilo hilo) {
+        int i = ThreadLocalRandom.current().nextInt(RECURSOS);
+        try {
+            servicio.programarCita(pacientes[i], medicos[i], salas[i],
+                    base.plusMinutes(hilo.proximoTurno()), COSTO);
+            return true;
+        } catch (CitaException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entidades.Departamento;
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.Hospital;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Sala;
+import org.example.servicio.CitaServiceJpa;
+import org.example.servicio.SolicitudCita;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hospital persistido en una base H2 en memoria con una cantidad configurable de citas,
+ * repartidas entre pares fijos de médico y sala en turnos de 30 minutos.
+ */
+final class EscenarioHospital {
+    static final int PARES_MEDICO_SALA = 20;
+    static final int PACIENTES = 1000;
+    private static final int TAMANIO_LOTE = 1000;
+
+    final EntityManagerFactory emf;
+    final List<Medico> medicos = new ArrayList<>();
+    final List<Sala> salas = new ArrayList<>();
+    final List<Paciente> pacientes = new ArrayList<>();
+    final LocalDateTime base = LocalDateTime.now().plusDays(1).withSecond(0).withNano(0);
+
+    private EscenarioHospital(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    static EscenarioHospital sembrar(String nombreBase, int citas) {
+        return sembrar(nombreBase, citas, Map.of());
+    }
+
+    static EscenarioHospital sembrar(String nombreBase, int citas, Map<String, Object> propiedades) {
+        EscenarioHospital escenario = new EscenarioHospital(Fixtures.baseEnMemoria(nombreBase, propiedades));
+        escenario.sembrarEstructura();
+        escenario.sembrarCitas(citas);
+        return escenario;
+    }
+
+    List<SolicitudCita> solicitudes(int desde, int hasta) {
+        BigDecimal costo = new BigDecimal("1000.00");
+        List<SolicitudCita> solicitudes = new ArrayList<>(hasta - desde);
+        for (int i = desde; i < hasta; i++) {
+            int par = i % PARES_MEDICO_SALA;
+            solicitudes.add(new SolicitudCita(pacientes.get(i % PACIENTES), medicos.get(par), salas.get(par),
+                    base.plusMinutes(30L * (i / PARES_MEDICO_SALA)), costo));
+        }
+        return solicitudes;
+    }
+
+    void cerrar() {
+        emf.close();
+    }
+
+    private void sembrarEstructura() {
+        Hospital hospital = Hospital.builder()
+                .nombre("Hospital Benchmark")
+                .direccion("Av. Siempre Viva 742")
+                .telefono("011-0000-0000")
+                .build();
+        EspecialidadMedica[] especialidades = {EspecialidadMedica.CARDIOLOGIA,
+                EspecialidadMedica.PEDIATRIA, EspecialidadMedica.TRAUMATOLOGIA};
+        List<Departamento> departamentos = new ArrayList<>();
+        for (EspecialidadMedica especialidad : especialidades) {
+            Departamento departamento = Fixtures.departamento(especialidad);
+            hospital.agregarDepartamento(departamento);
+            departamentos.add(departamento);
+        }
+        for (int i = 0; i < PARES_MEDICO_SALA; i++) {
+            Departamento departamento = departamentos.get(i % departamentos.size());
+            Medico medico = Fixtures.medico(i, departamento.getEspecialidad());
+            departamento.agregarMedico(medico);
+            medicos.add(medico);
+            salas.add(departamento.crearSala("S-" + i, "Consultorio"));
+        }
+        for (int i = 0; i < PACIENTES; i++) {
+            pacientes.add(Fixtures.paciente(i));
+        }
+        hospital.agregarPacientes(pacientes);
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.persist(hospital);
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    private void sembrarCitas(int citas) {
+        CitaServiceJpa citaService = new CitaServiceJpa(emf);
+        for (int desde = 0; desde < citas; desde += TAMANIO_LOTE) {
+            citaService.programarCitas(solicitudes(desde, Math.min(desde + TAMANIO_LOTE, citas)));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.example.entidades.Departamento;
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.TipoSangre;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Datos de prueba compartidos por los benchmarks.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static Departamento departamento(EspecialidadMedica especialidad) {
+        return Departamento.builder()
+                .nombre(especialidad.getDescripcion())
+                .especialidad(especialidad)
+                .build();
+    }
+
+    static Medico medico(int indice, EspecialidadMedica especialidad) {
+        return Medico.builder()
+                .nombre("Medico" + indice)
+                .apellido("Benchmark")
+                .dni(String.valueOf(10_000_000 + indice))
+                .fechaNacimiento(LocalDate.of(1975, 1, 1))
+                .tipoSangre(TipoSangre.A_POSITIVO)
+                .numeroMatricula("MP-" + (100_000 + indice))
+                .especialidad(especialidad)
+                .build();
+    }
+
+    static Paciente paciente(int indice) {
+        return Paciente.builder()
+                .nombre("Paciente" + indice)
+                .apellido("Benchmark")
+                .dni(String.valueOf(20_000_000 + indice))
+                .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                .tipoSangre(TipoSangre.O_POSITIVO)
+                .telefono("011-0000-0000")
+                .direccion("Calle " + indice)
+                .build();
+    }
+
+    /**
+     * Unidad de persistencia sobre una base H2 en memoria, sin eco de SQL.
+     */
+    static EntityManagerFactory baseEnMemoria(String nombre) {
+        return baseEnMemoria(nombre, Map.of());
+    }
+
+    static EntityManagerFactory baseEnMemoria(String nombre, Map<String, Object> adicionales) {
+        Map<String, Object> propiedades = new HashMap<>();
+        propiedades.put("jakarta.persistence.jdbc.url", "jdbc:h2:mem:" + nombre + ";DB_CLOSE_DELAY=-1");
+        propiedades.put("hibernate.hbm2ddl.auto", "create-drop");
+        propiedades.put("hibernate.show_sql", "false");
+        propiedades.put("hibernate.format_sql", "false");
+        propiedades.putAll(adicionales);
+        return Persistence.createEntityManagerFactory("hospital-persistence-unit", propiedades);
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entidades.Departamento;
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.Hospital;
+import org.example.servicio.ImportadorPersonas;
+import org.example.servicio.ResultadoImportacion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Importación masiva de un archivo con un médico cada 50 pacientes y un 1 % de filas inválidas
+ * o repetidas, sobre una base con sólo el hospital y el departamento de destino en cada iteración. Informa filas por segundo en la salida.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ImportacionPersonasBenchmark {
+
+    @Param({"100000"})
+    public int filas;
+
+    @Param({"100", "1000"})
+    public int tamanioLote;
+
+    private Path archivo;
+    private EntityManagerFactory emf;
+    private Hospital hospital;
+    private Departamento departamento;
+    private int iteracion;
+
+    @Setup
+    public void generarArchivo() throws Exception {
+        archivo = Files.createTempFile("importacion", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            writer.write("tipo,nombre,apellido,dni,fechaNacimiento,tipoSangre,dato1,dato2");
+            writer.newLine();
+            for (int i = 0; i < filas; i++) {
+                if (i % 100 == 99) {
+                    // Alterna un DNI inválido y uno repetido
+                    writer.write(i % 200 == 99 ? "P,Error,Formato,12AB,1990-01-01,O+,011-0000-0000,Calle"
+                            : "P,Paciente,Repetido," + (20_000_000 + i - 1) + ",1990-01-01,O+,011-0000-0000,Calle");
+                } else if (i % 50 == 0) {
+                    writer.write("M,Medico" + i + ",Importado," + (10_000_000 + i) + ",1975-01-01,A+,MP-"
+                            + (100_000 + i / 50) + ",CARDIOLOGIA");
+                } else {
+                    writer.write("P,Paciente" + i + ",Importado," + (20_000_000 + i) + ",1990-01-01,O+,011-0000-0000,Calle " + i);
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void crearBase() {
+        emf = Fixtures.baseEnMemoria("importacion" + tamanioLote + "_" + iteracion++);
+        hospital = Hospital.builder()
+                .nombre("Hospital Benchmark")
+                .direccion("Av. Siempre Viva 742")
+                .telefono("011-0000-0000")
+                .build();
+        departamento = Fixtures.departamento(EspecialidadMedica.CARDIOLOGIA);
+        hospital.agregarDepartamento(departamento);
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.persist(hospital);
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void cerrarBase() {
+        emf.close();
+    }
+
+    @TearDown
+    public void borrarArchivo() throws Exception {
+        Files.deleteIfExists(archivo);
+    }
+
+    @Benchmark
+    public ResultadoImportacion importar() throws Exception {
+        ResultadoImportacion resultado = new ImportadorPersonas(emf, tamanioLote).importar(archivo, hospital, departamento);
+        System.out.printf("%n%d filas, %d importadas, %d errores, %.0f filas/s%n", resultado.filasLeidas(),
+                resultado.importadas(), resultado.errores().size(), resultado.filasPorSegundo());
+        return resultado;
+    }
+}
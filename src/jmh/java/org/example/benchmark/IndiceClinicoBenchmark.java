@@ -0,0 +1,67 @@
+package org.example.benchmark;
+
+import org.example.entidades.TipoEntrada;
+import org.example.servicio.IndiceClinico;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia de búsqueda en el índice clínico con historias sintéticas: cada una con dos
+ * diagnósticos, un tratamiento y, una de cada diez, una alergia.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IndiceClinicoBenchmark {
+    private static final String[] DIAGNOSTICOS = {"Hipertensión arterial", "Diabetes tipo 2", "Asma bronquial",
+            "Fractura de muñeca", "Migraña crónica", "Insuficiencia cardíaca", "Gastritis aguda",
+            "Otitis media", "Lumbalgia mecánica", "Hipotiroidismo"};
+    private static final String[] TRATAMIENTOS = {"Enalapril 10mg", "Metformina 850mg", "Salbutamol inhalado",
+            "Inmovilización y fisioterapia", "Sumatriptán 50mg", "Levotiroxina 100mcg", "Omeprazol 20mg"};
+    private static final String[] ALERGIAS = {"Penicilina", "Ibuprofeno", "Látex", "Sulfamidas", "Polen"};
+
+    @Param({"1000000"})
+    public int historias;
+
+    private IndiceClinico indice;
+
+    @Setup
+    public void preparar() {
+        indice = new IndiceClinico();
+        SplittableRandom azar = new SplittableRandom(42);
+        for (int i = 0; i < historias; i++) {
+            String numero = "HC-" + i;
+            indice.indexar(numero, TipoEntrada.DIAGNOSTICO, DIAGNOSTICOS[azar.nextInt(DIAGNOSTICOS.length)]);
+            indice.indexar(numero, TipoEntrada.DIAGNOSTICO, DIAGNOSTICOS[azar.nextInt(DIAGNOSTICOS.length)]);
+            indice.indexar(numero, TipoEntrada.TRATAMIENTO, TRATAMIENTOS[azar.nextInt(TRATAMIENTOS.length)]);
+            if (azar.nextInt(10) == 0) {
+                indice.indexar(numero, TipoEntrada.ALERGIA, ALERGIAS[azar.nextInt(ALERGIAS.length)]);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<String> alergiaExacta() {
+        return indice.buscar(TipoEntrada.ALERGIA, "penicilina");
+    }
+
+    @Benchmark
+    public List<String> diagnosticoVariosTerminos() {
+        return indice.buscar(TipoEntrada.DIAGNOSTICO, "insuficiencia cardiaca");
+    }
+
+    @Benchmark
+    public List<String> prefijoCualquierTipo() {
+        return indice.buscarPrefijo(null, "latex");
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.example.entidades.Cita;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Sala;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Siembra de citas con {@code persist} en transacciones de {@code porTransaccion} citas, sobre
+ * una base nueva en cada iteración, con y sin lotes JDBC. Para comparar ids IDENTITY frente a
+ * secuencias se ejecuta sobre las dos versiones de las entidades; con IDENTITY Hibernate
+ * inserta cada cita al persistirla y el tamaño de lote no cambia nada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InsercionCitasBenchmark {
+
+    @Param({"1000000"})
+    public int citas;
+
+    @Param({"1", "50"})
+    public int tamanioLoteJdbc;
+
+    private static final int POR_TRANSACCION = 5000;
+
+    private EscenarioHospital escenario;
+    private int iteracion;
+
+    @Setup(Level.Iteration)
+    public void crearBase() {
+        escenario = EscenarioHospital.sembrar("insercion" + tamanioLoteJdbc + "_" + iteracion++, 0,
+                Map.of("hibernate.jdbc.batch_size", String.valueOf(tamanioLoteJdbc),
+                        "hibernate.cache.use_second_level_cache", "false",
+                        "hibernate.cache.use_query_cache", "false"));
+    }
+
+    @TearDown(Level.Iteration)
+    public void cerrarBase() {
+        escenario.cerrar();
+    }
+
+    @Benchmark
+    public long sembrar() {
+        BigDecimal costo = new BigDecimal("1000.00");
+        int pares = EscenarioHospital.PARES_MEDICO_SALA;
+        EntityManager em = escenario.emf.createEntityManager();
+        try {
+            for (int desde = 0; desde < citas; desde += POR_TRANSACCION) {
+                em.getTransaction().begin();
+                for (int i = desde; i < Math.min(desde + POR_TRANSACCION, citas); i++) {
+                    int par = i % pares;
+                    em.persist(Cita.builder()
+                            .paciente(em.getReference(Paciente.class, escenario.pacientes.get(i % EscenarioHospital.PACIENTES).getId()))
+                            .medico(em.getReference(Medico.class, escenario.medicos.get(par).getId()))
+                            .sala(em.getReference(Sala.class, escenario.salas.get(par).getId()))
+                            .fechaHora(escenario.base.plusMinutes(30L * (i / pares)))
+                            .costo(costo)
+                            .build());
+                }
+                em.getTransaction().commit();
+                em.clear();
+            }
+            return em.createQuery("SELECT COUNT(c) FROM Cita c", Long.class).getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.benchmark;
+
+import org.example.entidades.NumeroHistoriaMonotono;
+import org.example.entidades.Paciente;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Números de historia por segundo con el generador monótono, en un hilo y con un hilo por
+ * núcleo compartiendo el mismo generador, frente a la concatenación con el reloj que se usaba
+ * antes (y que repite números dentro del mismo milisegundo).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NumeroHistoriaBenchmark {
+    private final NumeroHistoriaMonotono generador = new NumeroHistoriaMonotono();
+    private Paciente paciente;
+
+    @Setup
+    public void preparar() {
+        paciente = Fixtures.paciente(1);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String monotonoUnHilo() {
+        return generador.generar(paciente);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String monotonoConcurrente() {
+        return generador.generar(paciente);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String relojAnterior() {
+        return "HC-" + paciente.getDni() + "-" + System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.benchmark;
+
+import org.example.entidades.Medico;
+import org.example.servicio.CitaResumen;
+import org.example.servicio.ConsultaCitasService;
+import org.example.servicio.EstructuraHospitalService;
+import org.example.servicio.PerfilPersistencia;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prueba de carga: consultas por segundo con varios hilos según el perfil de persistencia.
+ * La base es en memoria para todos los perfiles; cambian el pool, el eco de SQL y los ajustes
+ * de JDBC. La caché de segundo nivel se desactiva para que cada consulta llegue a la base.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class PerfilesPersistenciaBenchmark {
+
+    @Param({"DEV", "PROD"})
+    public PerfilPersistencia perfil;
+
+    private EscenarioHospital escenario;
+    private ConsultaCitasService consultaCitas;
+    private EstructuraHospitalService estructura;
+
+    @Setup
+    public void preparar() {
+        Map<String, Object> propiedades = perfil.propiedades("jdbc:h2:mem:perfil" + perfil + ";DB_CLOSE_DELAY=-1");
+        propiedades.put("hibernate.hbm2ddl.auto", "create-drop");
+        propiedades.put("jakarta.persistence.sharedCache.mode", "NONE");
+        propiedades.put("hibernate.cache.use_second_level_cache", "false");
+        propiedades.put("hibernate.cache.use_query_cache", "false");
+        escenario = EscenarioHospital.sembrar("perfil" + perfil, 10_000, propiedades);
+        consultaCitas = new ConsultaCitasService(escenario.emf);
+        estructura = new EstructuraHospitalService(escenario.emf);
+    }
+
+    @TearDown
+    public void cerrar() {
+        escenario.cerrar();
+    }
+
+    @Benchmark
+    public Medico medicoPorDni() {
+        List<Medico> medicos = escenario.medicos;
+        Medico medico = medicos.get(ThreadLocalRandom.current().nextInt(medicos.size()));
+        return estructura.buscarMedicoPorDni(medico.getDni()).orElseThrow();
+    }
+
+    @Benchmark
+    public List<CitaResumen> citasDelDia() {
+        int dia = ThreadLocalRandom.current().nextInt(10);
+        return consultaCitas.listarCitasEntre(escenario.base.plusDays(dia), escenario.base.plusDays(dia + 1));
+    }
+}
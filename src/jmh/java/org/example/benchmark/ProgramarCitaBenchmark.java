@@ -0,0 +1,93 @@
+package org.example.benchmark;
+
+import org.example.entidades.Cita;
+import org.example.entidades.Departamento;
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.EstadoCita;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Sala;
+import org.example.servicio.CitaException;
+import org.example.servicio.CitaManager;
+import org.example.servicio.SolicitudCita;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia de reserva y de consulta para un médico con un historial creciente de citas.
+ * Con la agenda indexada por hora de inicio la latencia debe mantenerse plana.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProgramarCitaBenchmark {
+    private static final BigDecimal COSTO = new BigDecimal("1000.00");
+
+    @Param({"100", "10000", "50000"})
+    public int citasPorMedico;
+
+    private CitaManager citaManager;
+    private Medico medico;
+    private Sala sala;
+    private Paciente paciente;
+    private LocalDateTime inicioHistorial;
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        Departamento departamento = Fixtures.departamento(EspecialidadMedica.CARDIOLOGIA);
+        medico = Fixtures.medico(1, EspecialidadMedica.CARDIOLOGIA);
+        departamento.agregarMedico(medico);
+        sala = departamento.crearSala("B-1", "Consultorio");
+        paciente = Fixtures.paciente(1);
+        citaManager = new CitaManager();
+
+        inicioHistorial = LocalDateTime.now().plusDays(1).withNano(0);
+        List<SolicitudCita> historial = new ArrayList<>(citasPorMedico);
+        for (int i = 0; i < citasPorMedico; i++) {
+            historial.add(new SolicitudCita(paciente, medico, sala, inicioHistorial.plusMinutes(60L * i), COSTO));
+        }
+        citaManager.programarCitas(historial);
+    }
+
+    /**
+     * Reserva en un hueco libre dentro del historial (los turnos de 30 minutos dejan libre
+     * la segunda media hora) y la cancela para que el tamaño de la agenda no cambie.
+     */
+    @Benchmark
+    public Cita programarYCancelar() throws CitaException {
+        int hueco = siguiente++ % citasPorMedico;
+        Cita cita = citaManager.programarCita(paciente, medico, sala,
+                inicioHistorial.plusMinutes(60L * hueco + 30), COSTO);
+        citaManager.cambiarEstado(cita, EstadoCita.CANCELADA);
+        return cita;
+    }
+
+    @Benchmark
+    public boolean rechazoPorConflicto() {
+        int ocupado = siguiente++ % citasPorMedico;
+        try {
+            citaManager.programarCita(paciente, medico, sala, inicioHistorial.plusMinutes(60L * ocupado), COSTO);
+            return true;
+        } catch (CitaException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public int getCitasPorMedico() {
+        return citaManager.getCitasPorMedico(medico).size();
+    }
+}
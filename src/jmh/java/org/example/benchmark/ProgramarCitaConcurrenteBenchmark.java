@@ -0,0 +1,97 @@
+package org.example.benchmark;
+
+import org.example.entidades.Departamento;
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Sala;
+import org.example.servicio.CitaException;
+import org.example.servicio.CitaManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput de reservas concurrentes sobre recursos repartidos. La cantidad de hilos se
+ * elige al ejecutar: {@code ./gradlew jmh -PjmhIncludes=Concurrente -PjmhThreads=N}.
+ * Con cerrojos por franja el throughput debe crecer con los núcleos mientras los hilos
+ * trabajen sobre médicos y salas distintos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProgramarCitaConcurrenteBenchmark {
+    private static final BigDecimal COSTO = new BigDecimal("1000.00");
+
+    @Param({"256"})
+    public int recursos;
+
+    private CitaManager citaManager;
+    private Medico[] medicos;
+    private Sala[] salas;
+    private Paciente[] pacientes;
+    private LocalDateTime base;
+    private final AtomicInteger hilos = new AtomicInteger();
+
+    @Setup(Level.Iteration)
+    public void preparar() {
+        hilos.set(0);
+        citaManager = new CitaManager();
+        medicos = new Medico[recursos];
+        salas = new Sala[recursos];
+        pacientes = new Paciente[recursos];
+        Departamento departamento = Fixtures.departamento(EspecialidadMedica.MEDICINA_GENERAL);
+        for (int i = 0; i < recursos; i++) {
+            medicos[i] = Fixtures.medico(i, EspecialidadMedica.MEDICINA_GENERAL);
+            departamento.agregarMedico(medicos[i]);
+            salas[i] = departamento.crearSala("C-" + i, "Consultorio");
+            pacientes[i] = Fixtures.paciente(i);
+        }
+        base = LocalDateTime.now().plusDays(1).withNano(0);
+    }
+
+    /**
+     * Cada hilo reserva en turnos de 30 minutos propios (intercalados con los de los demás),
+     * así los hilos sólo compiten por las franjas de cerrojos y no por el horario.
+     */
+    @State(Scope.Thread)
+    public static class Hilo {
+        private static final int MAXIMO_HILOS = 1024;
+        private int id;
+        private long siguiente;
+
+        @Setup(Level.Iteration)
+        public void preparar(ProgramarCitaConcurrenteBenchmark benchmark) {
+            id = benchmark.hilos.getAndIncrement() % MAXIMO_HILOS;
+            siguiente = 0;
+        }
+
+        long proximoTurno() {
+            return (siguiente++ * MAXIMO_HILOS + id) * 30L;
+        }
+    }
+
+    @Benchmark
+    public boolean programarCita(Hilo hilo) {
+        int i = ThreadLocalRandom.current().nextInt(recursos);
+        try {
+            citaManager.programarCita(pacientes[i], medicos[i], salas[i],
+                    base.plusMinutes(hilo.proximoTurno()), COSTO);
+            return true;
+        } catch (CitaException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.benchmark;
+
+import org.example.entidades.Departamento;
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Sala;
+import org.example.servicio.CitaException;
+import org.example.servicio.CitaManager;
+import org.example.servicio.ResultadoCita;
+import org.example.servicio.SolicitudCita;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por reserva del lote frente a la reserva individual, con un 10% de conflictos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProgramarCitasLoteBenchmark {
+    private static final int TAMANIO_LOTE = 1000;
+    private static final int MEDICOS = 50;
+
+    private List<SolicitudCita> solicitudes;
+    private CitaManager citaManager;
+
+    @Setup(Level.Trial)
+    public void prepararSolicitudes() {
+        Departamento departamento = Fixtures.departamento(EspecialidadMedica.PEDIATRIA);
+        Medico[] medicos = new Medico[MEDICOS];
+        Sala[] salas = new Sala[MEDICOS];
+        for (int i = 0; i < MEDICOS; i++) {
+            medicos[i] = Fixtures.medico(i, EspecialidadMedica.PEDIATRIA);
+            departamento.agregarMedico(medicos[i]);
+            salas[i] = departamento.crearSala("P-" + i, "Consultorio");
+        }
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+        BigDecimal costo = new BigDecimal("500.00");
+        solicitudes = new ArrayList<>(TAMANIO_LOTE);
+        for (int i = 0; i < TAMANIO_LOTE; i++) {
+            int recurso = i % MEDICOS;
+            // Una de cada diez repite el turno anterior del mismo médico
+            long turno = (i % 10 == 9) ? (i / MEDICOS) - 1 : i / MEDICOS;
+            Paciente paciente = Fixtures.paciente(i);
+            solicitudes.add(new SolicitudCita(paciente, medicos[recurso], salas[recurso],
+                    base.plusMinutes(30 * Math.max(turno, 0)), costo));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void prepararGestor() {
+        citaManager = new CitaManager();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TAMANIO_LOTE)
+    public List<ResultadoCita> lote() {
+        return citaManager.programarCitas(solicitudes);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TAMANIO_LOTE)
+    public int individual() {
+        int aceptadas = 0;
+        for (SolicitudCita solicitud : solicitudes) {
+            try {
+                citaManager.programarCita(solicitud.paciente(), solicitud.medico(), solicitud.sala(),
+                        solicitud.fechaHora(), solicitud.costo());
+                aceptadas++;
+            } catch (CitaException e) {
+                // Rechazo esperado en los conflictos
+            }
+        }
+        return aceptadas;
+    }
+}
@@ -2,34 +2,60 @@ package org.example;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
-import jakarta.persistence.Persistence;
 import jakarta.persistence.TypedQuery;
 import org.example.entidades.*;
-
+import org.example.servicio.CitaResumen;
+import org.example.servicio.ConsultaCitasService;
+import org.example.servicio.EstadisticasHospital;
+import org.example.servicio.EstadisticasService;
+import org.example.servicio.HistoriaClinicaService;
+import org.example.servicio.IndiceClinico;
+import org.example.servicio.MigracionEntradasClinicas;
+import org.example.servicio.MigracionSecuencias;
+import org.example.servicio.PerfilPersistencia;
+
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public class Main {
     public static void main(String[] args) {
         System.out.println("===== SISTEMA DE GESTIÓN HOSPITALARIA CON JPA =====\n");
 
-        EntityManagerFactory emf = Persistence.createEntityManagerFactory("hospital-persistence-unit");
+        PerfilPersistencia perfil = PerfilPersistencia.actual();
+        EntityManagerFactory emf = perfil.crearEntityManagerFactory();
+        // Bases creadas con la historia clínica en tablas propias: pasar sus entradas a entradas_clinicas
+        MigracionEntradasClinicas.migrar(emf);
+        // Bases creadas con ids IDENTITY: crear y adelantar las secuencias antes de cualquier alta
+        MigracionSecuencias.migrar(emf);
         EntityManager em = emf.createEntityManager();
 
         try {
+            // Índice de búsqueda en historias clínicas: se carga del archivo y se completa con la base
+            IndiceClinico indiceClinico = abrirIndiceClinico(perfil, emf);
+            HistoriaClinicaService historiaClinicaService = new HistoriaClinicaService(emf);
+            historiaClinicaService.registrarObservador(indiceClinico);
+
             // 1. Inicializar y persistir hospital
             inicializarYPersistirDatos(em);
 
             // 2. Consultar y mostrar datos
-            consultarYMostrarDatos(em);
+            consultarYMostrarDatos(em, new ConsultaCitasService(emf));
 
             // 3. Actualizar estado de citas
             actualizarEstadoCitas(em);
 
             // 4. Mostrar estadísticas
-            mostrarEstadisticas(em);
+            mostrarEstadisticas(new EstadisticasService(emf));
+
+            // 5. Buscar en historias clínicas
+            buscarEnHistorias(emf, indiceClinico, historiaClinicaService);
+            if (perfil != PerfilPersistencia.TEST) {
+                indiceClinico.guardar(IndiceClinico.ARCHIVO_POR_DEFECTO);
+            }
 
             System.out.println("\n===== SISTEMA EJECUTADO EXITOSAMENTE =====");
 
@@ -42,6 +68,16 @@ public class Main {
         }
     }
 
+    // La base en memoria del perfil test se recrea en cada arranque: su índice se arma desde cero
+    private static IndiceClinico abrirIndiceClinico(PerfilPersistencia perfil, EntityManagerFactory emf)
+            throws IOException {
+        int hilos = Runtime.getRuntime().availableProcessors();
+        if (perfil == PerfilPersistencia.TEST) {
+            return IndiceClinico.reconstruir(emf, hilos);
+        }
+        return IndiceClinico.abrir(IndiceClinico.ARCHIVO_POR_DEFECTO, emf, hilos);
+    }
+
     private static void inicializarYPersistirDatos(EntityManager em) {
         System.out.println("Inicializando y persistiendo datos del hospital...\n");
 
@@ -259,7 +295,7 @@ public class Main {
         }
     }
 
-    private static void consultarYMostrarDatos(EntityManager em) {
+    private static void consultarYMostrarDatos(EntityManager em, ConsultaCitasService consultaCitas) {
         System.out.println("===== CONSULTANDO DATOS PERSISTIDOS =====\n");
 
         // Consultar todos los hospitales
@@ -304,20 +340,19 @@ public class Main {
         }
         System.out.println();
 
-        // Consultar citas programadas
-        TypedQuery<Cita> queryCitas = em.createQuery(
-                "SELECT c FROM Cita c ORDER BY c.fechaHora", Cita.class);
-        List<Cita> citas = queryCitas.getResultList();
+        // Consultar citas programadas (una sola consulta con los datos de paciente, médico y sala)
+        List<CitaResumen> citas = consultaCitas.listarCitas();
 
         System.out.println("===== CITAS PROGRAMADAS =====");
-        for (Cita cita : citas) {
-            System.out.println("Fecha: " + cita.getFechaHora());
-            System.out.println("  Paciente: " + cita.getPaciente().getNombreCompleto());
-            System.out.println("  Médico: Dr. " + cita.getMedico().getNombreCompleto());
-            System.out.println("  Sala: " + cita.getSala().getNumero());
-            System.out.println("  Costo: $" + cita.getCosto());
-            System.out.println("  Estado: " + cita.getEstado());
-            System.out.println("  Observaciones: " + cita.getObservaciones());
+        for (CitaResumen cita : citas) {
+            System.out.println("Fecha: " + cita.fechaHora());
+            System.out.println("  Paciente: " + cita.getPacienteNombreCompleto());
+            System.out.println("  Médico: Dr. " + cita.getMedicoNombreCompleto() +
+                    " (" + cita.especialidad().getDescripcion() + ")");
+            System.out.println("  Sala: " + cita.numeroSala());
+            System.out.println("  Costo: $" + cita.costo());
+            System.out.println("  Estado: " + cita.estado());
+            System.out.println("  Observaciones: " + cita.observaciones());
             System.out.println();
         }
     }
@@ -351,44 +386,50 @@ public class Main {
         }
     }
 
-    private static void mostrarEstadisticas(EntityManager em) {
+    private static void buscarEnHistorias(EntityManagerFactory emf, IndiceClinico indiceClinico,
+                                          HistoriaClinicaService historiaClinicaService) {
+        System.out.println("===== BÚSQUEDA EN HISTORIAS CLÍNICAS =====\n");
+
+        // Las entradas persistidas junto con su historia no pasan por el servicio: se leen de la base
+        indiceClinico.ponerAlDia(emf, Runtime.getRuntime().availableProcessors());
+
+        List<Paciente> alergicos = historiaClinicaService.pacientesDeHistorias(
+                indiceClinico.buscar(TipoEntrada.ALERGIA, "penicilina"));
+        System.out.println("Pacientes alérgicos a la penicilina:");
+        for (Paciente paciente : alergicos) {
+            System.out.println("  " + paciente.getNombreCompleto() + " | DNI: " + paciente.getDni());
+        }
+        System.out.println();
+    }
+
+    private static void mostrarEstadisticas(EstadisticasService estadisticasService) {
         System.out.println("===== ESTADISTICAS DEL SISTEMA =====\n");
 
+        EstadisticasHospital estadisticas = estadisticasService.calcular();
+
         // Contar médicos por especialidad
         System.out.println("Médicos por especialidad:");
-        for (EspecialidadMedica especialidad : EspecialidadMedica.values()) {
-            Long count = em.createQuery(
-                            "SELECT COUNT(m) FROM Medico m WHERE m.especialidad = :esp", Long.class)
-                    .setParameter("esp", especialidad)
-                    .getSingleResult();
-            if (count > 0) {
-                System.out.println("  " + especialidad.getDescripcion() + ": " + count);
+        for (Map.Entry<EspecialidadMedica, Long> entrada : estadisticas.medicosPorEspecialidad().entrySet()) {
+            if (entrada.getValue() > 0) {
+                System.out.println("  " + entrada.getKey().getDescripcion() + ": " + entrada.getValue());
             }
         }
         System.out.println();
 
         // Contar citas por estado
         System.out.println("Citas por estado:");
-        for (EstadoCita estado : EstadoCita.values()) {
-            Long count = em.createQuery(
-                            "SELECT COUNT(c) FROM Cita c WHERE c.estado = :estado", Long.class)
-                    .setParameter("estado", estado)
-                    .getSingleResult();
-            if (count > 0) {
-                System.out.println("  " + estado + ": " + count);
+        for (Map.Entry<EstadoCita, Long> entrada : estadisticas.citasPorEstado().entrySet()) {
+            if (entrada.getValue() > 0) {
+                System.out.println("  " + entrada.getKey() + ": " + entrada.getValue());
             }
         }
         System.out.println();
 
         // Total de salas
-        Long totalSalas = em.createQuery("SELECT COUNT(s) FROM Sala s", Long.class)
-                .getSingleResult();
-        System.out.println("Total de salas: " + totalSalas);
+        System.out.println("Total de salas: " + estadisticas.totalSalas());
 
         // Total de pacientes
-        Long totalPacientes = em.createQuery("SELECT COUNT(p) FROM Paciente p", Long.class)
-                .getSingleResult();
-        System.out.println("Total de pacientes: " + totalPacientes);
+        System.out.println("Total de pacientes: " + estadisticas.totalPacientes());
 
         System.out.println();
     }
@@ -5,6 +5,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.example.servicio.CitaCsvCodec;
 import org.example.servicio.CitaException;
 
 import java.io.Serializable;
@@ -14,13 +15,19 @@ import java.util.Map;
 import java.util.Objects;
 
 @Entity
-@Table(name = "citas")
+@Table(name = "citas", indexes = {
+        @Index(name = "idx_citas_medico_fecha", columnList = "medico_id, fecha_hora"),
+        @Index(name = "idx_citas_sala_fecha", columnList = "sala_id, fecha_hora"),
+        @Index(name = "idx_citas_paciente_fecha", columnList = "paciente_id, fecha_hora"),
+        @Index(name = "idx_citas_estado_fecha", columnList = "estado, fecha_hora")
+})
 @Getter
 @ToString(exclude = {"paciente", "medico", "sala"})
 @NoArgsConstructor
 public class Cita implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "citas_seq")
+    @SequenceGenerator(name = "citas_seq", sequenceName = "citas_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
@@ -145,58 +152,17 @@ public class Cita implements Serializable {
         this.observaciones = observaciones != null ? observaciones : "";
     }
 
+    // Una cita suelta; para archivos completos usar CitaCsvCodec, que reutiliza sus buffers
     public String toCsvString() {
-        return String.format("%s,%s,%s,%s,%s,%s,%s",
-                paciente.getDni(),
-                medico.getDni(),
-                sala.getNumero(),
-                fechaHora.toString(),
-                costo.toString(),
-                estado.name(),
-                observaciones.replaceAll(",", ";"));
+        StringBuilder linea = new StringBuilder(160);
+        CitaCsvCodec.codificar(this, linea);
+        return linea.toString();
     }
 
     public static Cita fromCsvString(String csvString,
                                      Map<String, Paciente> pacientes,
                                      Map<String, Medico> medicos,
                                      Map<String, Sala> salas) throws CitaException {
-        String[] values = csvString.split(",");
-        if (values.length != 7) {
-            throw new CitaException("Formato de CSV inválido para Cita: " + csvString);
-        }
-
-        String dniPaciente = values[0];
-        String dniMedico = values[1];
-        String numeroSala = values[2];
-        LocalDateTime fechaHora = LocalDateTime.parse(values[3]);
-        BigDecimal costo = new BigDecimal(values[4]);
-        EstadoCita estado = EstadoCita.valueOf(values[5]);
-        String observaciones = values[6].replaceAll(";", ",");
-
-        Paciente paciente = pacientes.get(dniPaciente);
-        Medico medico = medicos.get(dniMedico);
-        Sala sala = salas.get(numeroSala);
-
-        if (paciente == null) {
-            throw new CitaException("Paciente no encontrado: " + dniPaciente);
-        }
-        if (medico == null) {
-            throw new CitaException("Médico no encontrado: " + dniMedico);
-        }
-        if (sala == null) {
-            throw new CitaException("Sala no encontrada: " + numeroSala);
-        }
-
-        Cita cita = Cita.builder()
-                .paciente(paciente)
-                .medico(medico)
-                .sala(sala)
-                .fechaHora(fechaHora)
-                .costo(costo)
-                .estado(estado)
-                .observaciones(observaciones)
-                .build();
-
-        return cita;
+        return new CitaCsvCodec().decodificar(csvString, pacientes, medicos, salas);
     }
 }
@@ -1,9 +1,12 @@
 package org.example.entidades;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -13,12 +16,16 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "departamentos")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED, force = true)
 @ToString(exclude = {"hospital", "medicos", "salas"})
 public class Departamento implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "departamentos_seq")
+    @SequenceGenerator(name = "departamentos_seq", sequenceName = "departamentos_seq", allocationSize = 50)
     private Long id;
 
 
@@ -37,10 +44,12 @@ public class Departamento implements Serializable {
 
 
     @OneToMany(mappedBy = "departamento", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Medico> medicos = new ArrayList<>();
 
 
     @OneToMany(mappedBy = "departamento", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Sala> salas = new ArrayList<>();
 
 
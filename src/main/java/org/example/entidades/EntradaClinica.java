@@ -0,0 +1,108 @@
+package org.example.entidades;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Entrada de una historia clínica (diagnóstico, tratamiento o alergia). Las entradas sólo se
+ * agregan: una vez insertadas no se modifican ni se reescriben al agregar otras.
+ */
+@Entity
+@Immutable
+@Table(name = "entradas_clinicas", indexes =
+        @Index(name = "idx_entradas_historia_fecha", columnList = "historia_clinica_id, fecha_registro, id"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(exclude = {"historiaClinica"})
+public class EntradaClinica implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "entradas_clinicas_seq")
+    @SequenceGenerator(name = "entradas_clinicas_seq", sequenceName = "entradas_clinicas_seq", allocationSize = 50)
+    private Long id;
+
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "historia_clinica_id", nullable = false, updatable = false)
+    private HistoriaClinica historiaClinica;
+
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20, updatable = false)
+    private TipoEntrada tipo;
+
+
+    @Column(nullable = false, length = 500, updatable = false)
+    private String texto;
+
+
+    @Column(name = "fecha_registro", nullable = false, updatable = false)
+    private LocalDateTime fechaRegistro;
+
+
+    private EntradaClinica(EntradaClinicaBuilder builder) {
+        this.historiaClinica = Objects.requireNonNull(builder.historiaClinica, "La historia clínica no puede ser nula");
+        this.tipo = Objects.requireNonNull(builder.tipo, "El tipo de entrada no puede ser nulo");
+        this.texto = validarString(builder.texto, "El texto de la entrada no puede ser nulo ni vacío");
+        this.fechaRegistro = builder.fechaRegistro != null ? builder.fechaRegistro : LocalDateTime.now();
+    }
+
+
+    public static class EntradaClinicaBuilder {
+        private HistoriaClinica historiaClinica;
+        private TipoEntrada tipo;
+        private String texto;
+        private LocalDateTime fechaRegistro;
+
+
+        public EntradaClinicaBuilder historiaClinica(HistoriaClinica historiaClinica) {
+            this.historiaClinica = historiaClinica;
+            return this;
+        }
+
+
+        public EntradaClinicaBuilder tipo(TipoEntrada tipo) {
+            this.tipo = tipo;
+            return this;
+        }
+
+
+        public EntradaClinicaBuilder texto(String texto) {
+            this.texto = texto;
+            return this;
+        }
+
+
+        public EntradaClinicaBuilder fechaRegistro(LocalDateTime fechaRegistro) {
+            this.fechaRegistro = fechaRegistro;
+            return this;
+        }
+
+
+        public EntradaClinica build() {
+            return new EntradaClinica(this);
+        }
+    }
+
+
+    public static EntradaClinicaBuilder builder() {
+        return new EntradaClinicaBuilder();
+    }
+
+
+    private String validarString(String valor, String mensajeError) {
+        Objects.requireNonNull(valor, mensajeError);
+        if (valor.trim().isEmpty()) {
+            throw new IllegalArgumentException(mensajeError);
+        }
+        return valor;
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.entidades;
+
+/**
+ * Genera el número único de una historia clínica al crearla. Se invoca desde el constructor de
+ * {@link Paciente}, posiblemente desde muchos hilos a la vez, por lo que las implementaciones
+ * deben ser seguras entre hilos y no bloquear.
+ */
+@FunctionalInterface
+public interface GeneradorNumeroHistoria {
+
+    String generar(Paciente paciente);
+}
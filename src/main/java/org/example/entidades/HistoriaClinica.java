@@ -15,12 +15,14 @@ import java.util.Objects;
 @Entity
 @Table(name = "historias_clinicas")
 @Getter
-@ToString(exclude = {"paciente"})
+@ToString(exclude = {"paciente", "entradas"})
 @NoArgsConstructor
 public class HistoriaClinica implements Serializable {
+    private static volatile GeneradorNumeroHistoria generadorNumeros = new NumeroHistoriaMonotono();
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "historias_clinicas_seq")
+    @SequenceGenerator(name = "historias_clinicas_seq", sequenceName = "historias_clinicas_seq", allocationSize = 50)
     private Long id;
 
 
@@ -37,28 +39,15 @@ public class HistoriaClinica implements Serializable {
     private LocalDateTime fechaCreacion;
 
 
-    @ElementCollection(fetch = FetchType.LAZY)
-    @CollectionTable(name = "diagnosticos", joinColumns = @JoinColumn(name = "historia_clinica_id"))
-    @Column(name = "diagnostico", length = 500)
-    private List<String> diagnosticos = new ArrayList<>();
-
-
-    @ElementCollection(fetch = FetchType.LAZY)
-    @CollectionTable(name = "tratamientos", joinColumns = @JoinColumn(name = "historia_clinica_id"))
-    @Column(name = "tratamiento", length = 500)
-    private List<String> tratamientos = new ArrayList<>();
-
-
-    @ElementCollection(fetch = FetchType.LAZY)
-    @CollectionTable(name = "alergias", joinColumns = @JoinColumn(name = "historia_clinica_id"))
-    @Column(name = "alergia", length = 200)
-    private List<String> alergias = new ArrayList<>();
+    // Bolsa inversa: agregar una entrada sólo encola su INSERT, sin cargar las demás; al leerla se ordena por fecha e id.
+    // Las entradas se borran con la historia, como cuando eran una colección de elementos
+    @OneToMany(mappedBy = "historiaClinica", cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REMOVE})
+    @OrderBy("fechaRegistro ASC, id ASC")
+    private List<EntradaClinica> entradas = new ArrayList<>();
 
 
     private HistoriaClinica(HistoriaClinicaBuilder builder) {
-        this.diagnosticos = new ArrayList<>();
-        this.tratamientos = new ArrayList<>();
-        this.alergias = new ArrayList<>();
+        this.entradas = new ArrayList<>();
         this.paciente = Objects.requireNonNull(builder.paciente, "El paciente no puede ser nulo");
         this.fechaCreacion = builder.fechaCreacion != null ? builder.fechaCreacion : LocalDateTime.now();
         this.numeroHistoria = generarNumeroHistoria();
@@ -94,43 +83,72 @@ public class HistoriaClinica implements Serializable {
 
 
     private String generarNumeroHistoria() {
-        return "HC-" + paciente.getDni() + "-" + System.currentTimeMillis();
+        return generadorNumeros.generar(paciente);
+    }
+
+
+    // Reemplaza el generador usado por las historias que se creen a partir de ahora
+    public static void usarGeneradorNumeros(GeneradorNumeroHistoria generador) {
+        generadorNumeros = Objects.requireNonNull(generador, "El generador no puede ser nulo");
     }
 
 
     public void agregarDiagnostico(String diagnostico) {
-        if (diagnostico != null && !diagnostico.trim().isEmpty()) {
-            diagnosticos.add(diagnostico);
-        }
+        agregarEntrada(TipoEntrada.DIAGNOSTICO, diagnostico);
     }
 
 
     public void agregarTratamiento(String tratamiento) {
-        if (tratamiento != null && !tratamiento.trim().isEmpty()) {
-            tratamientos.add(tratamiento);
-        }
+        agregarEntrada(TipoEntrada.TRATAMIENTO, tratamiento);
     }
 
 
     public void agregarAlergia(String alergia) {
-        if (alergia != null && !alergia.trim().isEmpty()) {
-            alergias.add(alergia);
+        agregarEntrada(TipoEntrada.ALERGIA, alergia);
+    }
+
+
+    private void agregarEntrada(TipoEntrada tipo, String texto) {
+        if (texto != null && !texto.trim().isEmpty()) {
+            EntradaClinica entrada = EntradaClinica.builder()
+                    .historiaClinica(this)
+                    .tipo(tipo)
+                    .texto(texto)
+                    .build();
+            entradas.add(entrada);
         }
     }
 
 
+    // Los getters siguientes recorren la historia completa; para leer por páginas usar HistoriaClinicaService
+    public List<EntradaClinica> getEntradas() {
+        return Collections.unmodifiableList(entradas);
+    }
+
+
     public List<String> getDiagnosticos() {
-        return Collections.unmodifiableList(diagnosticos);
+        return textosDe(TipoEntrada.DIAGNOSTICO);
     }
 
 
     public List<String> getTratamientos() {
-        return Collections.unmodifiableList(tratamientos);
+        return textosDe(TipoEntrada.TRATAMIENTO);
     }
 
 
     public List<String> getAlergias() {
-        return Collections.unmodifiableList(alergias);
+        return textosDe(TipoEntrada.ALERGIA);
+    }
+
+
+    private List<String> textosDe(TipoEntrada tipo) {
+        List<String> textos = new ArrayList<>();
+        for (EntradaClinica entrada : entradas) {
+            if (entrada.getTipo() == tipo) {
+                textos.add(entrada.getTexto());
+            }
+        }
+        return Collections.unmodifiableList(textos);
     }
 
 }
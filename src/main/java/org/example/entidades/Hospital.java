@@ -1,24 +1,35 @@
 package org.example.entidades;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Entity
 @Table(name = "hospitales")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
-@ToString(exclude = {"departamentos", "pacientes"})
+@NoArgsConstructor(access = AccessLevel.PROTECTED, force = true)
+@ToString(exclude = {"departamentos", "pacientes", "pacientesPorDni"})
 public class Hospital implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hospitales_seq")
+    @SequenceGenerator(name = "hospitales_seq", sequenceName = "hospitales_seq", allocationSize = 50)
     private Long id;
 
 
@@ -35,6 +46,7 @@ public class Hospital implements Serializable {
 
 
     @OneToMany(mappedBy = "hospital", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Departamento> departamentos = new ArrayList<>();
 
 
@@ -42,6 +54,12 @@ public class Hospital implements Serializable {
     private List<Paciente> pacientes = new ArrayList<>();
 
 
+    // Índice de pacientes por DNI junto a la lista: búsquedas y altas sin recorrerla. Se arma en el primer uso
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private Map<String, Paciente> pacientesPorDni;
+
+
     private Hospital(HospitalBuilder builder) {
         // Inicializar colecciones vacías para evitar NullPointerException
         this.departamentos = new ArrayList<>();
@@ -90,27 +108,52 @@ public class Hospital implements Serializable {
 
 
     public void agregarDepartamento(Departamento departamento) {
-        // Validar que el departamento no sea null y no esté duplicado
-        if (departamento != null && !departamentos.contains(departamento)) {
-            // Agregar a la colección interna
-            departamentos.add(departamento);
-            // Mantener consistencia bidireccional
+        // setHospital agrega el departamento a la colección interna y lo quita del hospital anterior
+        if (departamento != null) {
             departamento.setHospital(this);
         }
     }
 
 
     public void agregarPaciente(Paciente paciente) {
-        // Validar que el paciente no sea null y no esté duplicado
-        if (paciente != null && !pacientes.contains(paciente)) {
-            // Agregar a la colección interna
-            pacientes.add(paciente);
-            // Mantener consistencia bidireccional
+        if (paciente != null) {
+            // setHospital valida el DNI y mantiene la colección, el índice y la consistencia bidireccional
+            paciente.setHospital(this);
+        }
+    }
+
+
+    /**
+     * Alta de muchos pacientes: valida todos los DNI contra el índice y entre sí antes de
+     * agregar ninguno, de modo que un lote inválido no deja altas parciales.
+     */
+    public void agregarPacientes(Collection<Paciente> nuevos) {
+        Map<String, Paciente> indice = indicePacientes();
+        Map<String, Paciente> lote = new LinkedHashMap<>();
+        for (Paciente paciente : nuevos) {
+            Objects.requireNonNull(paciente, "El paciente no puede ser nulo");
+            Paciente existente = indice.get(paciente.getDni());
+            Paciente repetido = lote.putIfAbsent(paciente.getDni(), paciente);
+            if ((existente != null && existente != paciente) || (repetido != null && repetido != paciente)) {
+                throw new IllegalArgumentException("Ya existe un paciente con DNI " + paciente.getDni());
+            }
+        }
+        for (Paciente paciente : lote.values()) {
             paciente.setHospital(this);
         }
     }
 
 
+    public Paciente buscarPacientePorDni(String dni) {
+        return indicePacientes().get(dni);
+    }
+
+
+    public boolean tienePaciente(Paciente paciente) {
+        return paciente != null && indicePacientes().get(paciente.getDni()) == paciente;
+    }
+
+
     public List<Departamento> getDepartamentos() {
         return Collections.unmodifiableList(departamentos);
     }
@@ -126,8 +169,36 @@ public class Hospital implements Serializable {
     }
 
 
-    List<Paciente> getInternalPacientes() {
-        return pacientes;
+    // Único punto de alta en la lista: todos los caminos pasan por la validación de DNI, y el
+    // índice evita el contains lineal para no repetir al paciente
+    void registrarPaciente(Paciente paciente) {
+        Paciente existente = indicePacientes().putIfAbsent(paciente.getDni(), paciente);
+        if (existente == paciente) {
+            return;
+        }
+        if (existente != null) {
+            throw new IllegalArgumentException("Ya existe un paciente con DNI " + paciente.getDni());
+        }
+        pacientes.add(paciente);
+    }
+
+
+    void quitarPaciente(Paciente paciente) {
+        pacientes.remove(paciente);
+        if (pacientesPorDni != null) {
+            pacientesPorDni.remove(paciente.getDni(), paciente);
+        }
+    }
+
+
+    private Map<String, Paciente> indicePacientes() {
+        if (pacientesPorDni == null) {
+            pacientesPorDni = new HashMap<>(Math.max(16, pacientes.size() * 4 / 3 + 1));
+            for (Paciente paciente : pacientes) {
+                pacientesPorDni.put(paciente.getDni(), paciente);
+            }
+        }
+        return pacientesPorDni;
     }
 
 
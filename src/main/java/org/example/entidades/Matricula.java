@@ -28,7 +28,7 @@ public class Matricula implements Serializable {
         // Validar que no sea null
         Objects.requireNonNull(numero, "El número de matrícula no puede ser nulo");
         // Validar formato: MP- seguido de 4 a 6 dígitos
-        if (!numero.matches("MP-\\d{4,6}")) {
+        if (!Validaciones.esMatriculaValida(numero)) {
             throw new IllegalArgumentException("Formato de matrícula inválido. Debe ser como MP-12345");
         }
         return numero;
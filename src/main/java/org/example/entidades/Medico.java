@@ -6,6 +6,9 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.jpa.HibernateHints;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -14,15 +17,23 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
-@Table(name = "medicos")
+@Table(name = "medicos", indexes = @Index(name = "idx_medicos_especialidad", columnList = "especialidad"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedQuery(name = Medico.POR_DNI, query = "SELECT m FROM Medico m WHERE m.dni = :dni", hints = {
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "consultas-estructura")
+})
 @Getter
 @SuperBuilder
 @NoArgsConstructor
 @ToString(exclude = {"departamento", "citas"}, callSuper = true)
 public class Medico extends Persona implements Serializable {
+    public static final String POR_DNI = "Medico.porDni";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "medicos_seq")
+    @SequenceGenerator(name = "medicos_seq", sequenceName = "medicos_seq", allocationSize = 50)
     private Long id;
 
 
@@ -53,6 +64,11 @@ public class Medico extends Persona implements Serializable {
         this.matricula = new Matricula(builder.numeroMatricula);
         // Validar que especialidad no sea nula
         this.especialidad = Objects.requireNonNull(builder.especialidad, "La especialidad no puede ser nula");
+        // Sólo la referencia, con la misma regla de especialidad que Departamento.agregarMedico
+        if (builder.departamento != null && !especialidad.equals(builder.departamento.getEspecialidad())) {
+            throw new IllegalArgumentException("Especialidad incompatible");
+        }
+        this.departamento = builder.departamento;
         // CRÍTICO: Inicialización explícita requerida con @SuperBuilder
         this.citas = new ArrayList<>();
     }
@@ -61,6 +77,7 @@ public class Medico extends Persona implements Serializable {
     public static abstract class MedicoBuilder<C extends Medico, B extends MedicoBuilder<C, B>> extends PersonaBuilder<C, B> {
         private String numeroMatricula;
         private EspecialidadMedica especialidad;
+        private Departamento departamento;
 
 
         public B numeroMatricula(String numeroMatricula) {
@@ -73,6 +90,14 @@ public class Medico extends Persona implements Serializable {
             this.especialidad = especialidad;
             return self();
         }
+
+
+        // Fija sólo la clave foránea, sin agregar el médico al departamento: para altas masivas
+        // que no cargan la colección. Con el departamento en memoria, usar Departamento.agregarMedico
+        public B departamento(Departamento departamento) {
+            this.departamento = departamento;
+            return self();
+        }
     }
 
 
@@ -88,8 +113,10 @@ public class Medico extends Persona implements Serializable {
     }
 
 
+    // Vista de sólo lectura sin copia. CitaManager agrega citas bajo su cerrojo del recurso: mientras
+    // se programan citas en paralelo, leerlas por CitaManager; los rangos y páginas, con ConsultaCitasService
     public List<Cita> getCitas() {
-        return Collections.unmodifiableList(new ArrayList<>(citas));
+        return Collections.unmodifiableList(citas);
     }
 
 }
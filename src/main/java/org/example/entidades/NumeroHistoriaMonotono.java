@@ -0,0 +1,40 @@
+package org.example.entidades;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador por defecto: {@code HC-<dni>-<marca>}, donde la marca es un contador de 64 bits con
+ * los milisegundos desde epoch en la parte alta y 2<sup>16</sup> valores por milisegundo en la
+ * parte baja, escrita en base 36.
+ * <p>
+ * Cada marca es estrictamente mayor que la anterior, aunque se pidan más de 65.536 en el mismo
+ * milisegundo (el contador se adelanta al reloj) o el reloj retroceda. Al reiniciar el proceso
+ * la marca parte del reloj actual, por encima de todas las ya emitidas salvo que antes se haya
+ * sostenido ese ritmo durante más tiempo del que duró el reinicio. Como el DNI forma parte del
+ * número, dos procesos sólo podrían repetirlo para el mismo paciente.
+ */
+public final class NumeroHistoriaMonotono implements GeneradorNumeroHistoria {
+    private static final int BITS_SECUENCIA = 16;
+
+    private final AtomicLong ultimaMarca = new AtomicLong();
+
+    @Override
+    public String generar(Paciente paciente) {
+        String dni = paciente.getDni();
+        String marca = Long.toString(siguienteMarca(), 36);
+        return new StringBuilder(4 + dni.length() + marca.length())
+                .append("HC-").append(dni).append('-').append(marca)
+                .toString();
+    }
+
+    long siguienteMarca() {
+        long reloj = System.currentTimeMillis() << BITS_SECUENCIA;
+        while (true) {
+            long anterior = ultimaMarca.get();
+            long siguiente = Math.max(reloj, anterior + 1);
+            if (ultimaMarca.compareAndSet(anterior, siguiente)) {
+                return siguiente;
+            }
+        }
+    }
+}
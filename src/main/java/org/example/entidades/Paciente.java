@@ -21,7 +21,8 @@ import java.util.Objects;
 public class Paciente extends Persona implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pacientes_seq")
+    @SequenceGenerator(name = "pacientes_seq", sequenceName = "pacientes_seq", allocationSize = 50)
     private Long id;
 
 
@@ -56,6 +57,8 @@ public class Paciente extends Persona implements Serializable {
         this.direccion = validarString(builder.direccion, "La dirección no puede ser nula ni vacía");
         // CRÍTICO: Inicialización explícita requerida con @SuperBuilder
         this.citas = new ArrayList<>();
+        // Sólo la referencia: la colección del hospital no se toca (ver PacienteBuilder.hospital)
+        this.hospital = builder.hospital;
         // CRÍTICO: Crear HistoriaClinica automáticamente para este paciente
         this.historiaClinica = HistoriaClinica.builder()
                 .paciente(this)
@@ -66,6 +69,7 @@ public class Paciente extends Persona implements Serializable {
     public static abstract class PacienteBuilder<C extends Paciente, B extends PacienteBuilder<C, B>> extends PersonaBuilder<C, B> {
         private String telefono;
         private String direccion;
+        private Hospital hospital;
 
 
         public B telefono(String telefono) {
@@ -78,21 +82,29 @@ public class Paciente extends Persona implements Serializable {
             this.direccion = direccion;
             return self();
         }
+
+
+        // Fija sólo la clave foránea, sin registrar el paciente en el hospital: para altas masivas
+        // que no cargan la colección. Con el hospital en memoria, usar Hospital.agregarPaciente
+        public B hospital(Hospital hospital) {
+            this.hospital = hospital;
+            return self();
+        }
     }
 
 
     public void setHospital(Hospital hospital) {
         if (this.hospital != hospital) {
+            // Agregar primero al nuevo hospital: si rechaza el DNI, el paciente queda donde estaba
+            if (hospital != null) {
+                hospital.registrarPaciente(this);
+            }
             // Remover del hospital anterior si existe
             if (this.hospital != null) {
-                this.hospital.getInternalPacientes().remove(this);
+                this.hospital.quitarPaciente(this);
             }
             // Establecer nuevo hospital
             this.hospital = hospital;
-            // Agregar al nuevo hospital si no es null
-            if (hospital != null) {
-                hospital.getInternalPacientes().add(this);
-            }
         }
     }
 
@@ -102,8 +114,10 @@ public class Paciente extends Persona implements Serializable {
     }
 
 
+    // Vista de sólo lectura sin copia. CitaManager agrega citas bajo su cerrojo del recurso: mientras
+    // se programan citas en paralelo, leerlas por CitaManager; los rangos y páginas, con ConsultaCitasService
     public List<Cita> getCitas() {
-        return Collections.unmodifiableList(new ArrayList<>(citas));
+        return Collections.unmodifiableList(citas);
     }
 
 
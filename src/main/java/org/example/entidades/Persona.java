@@ -69,7 +69,7 @@ public abstract class Persona implements Serializable {
         // Validar que no sea null
         Objects.requireNonNull(dni, "El DNI no puede ser nulo");
         // Validar formato: 7 u 8 dígitos numéricos
-        if (!dni.matches("\\d{7,8}")) {
+        if (!Validaciones.esDniValido(dni)) {
             throw new IllegalArgumentException("El DNI debe tener 7 u 8 dígitos");
         }
         return dni;
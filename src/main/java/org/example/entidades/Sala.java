@@ -1,9 +1,13 @@
 package org.example.entidades;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.jpa.HibernateHints;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -13,12 +17,21 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "salas")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedQuery(name = Sala.POR_NUMERO, query = "SELECT s FROM Sala s WHERE s.numero = :numero", hints = {
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "consultas-estructura")
+})
 @Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED, force = true)
 @ToString(exclude = {"departamento", "citas"})
 public class Sala implements Serializable {
+    public static final String POR_NUMERO = "Sala.porNumero";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "salas_seq")
+    @SequenceGenerator(name = "salas_seq", sequenceName = "salas_seq", allocationSize = 50)
     private Long id;
 
 
@@ -87,8 +100,10 @@ public class Sala implements Serializable {
     }
 
 
+    // Vista de sólo lectura sin copia. CitaManager agrega citas bajo su cerrojo del recurso: mientras
+    // se programan citas en paralelo, leerlas por CitaManager; los rangos y páginas, con ConsultaCitasService
     public List<Cita> getCitas() {
-        return Collections.unmodifiableList(new ArrayList<>(citas));
+        return Collections.unmodifiableList(citas);
     }
 
 
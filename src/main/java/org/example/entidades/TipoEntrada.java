@@ -0,0 +1,20 @@
+package org.example.entidades;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+@Getter
+public enum TipoEntrada {
+
+    DIAGNOSTICO("Diagnóstico"),
+
+
+    TRATAMIENTO("Tratamiento"),
+
+
+    ALERGIA("Alergia");
+
+
+    private final String descripcion;
+}
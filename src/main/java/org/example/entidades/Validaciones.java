@@ -0,0 +1,32 @@
+package org.example.entidades;
+
+/**
+ * Validaciones de formato escritas a mano, sin expresiones regulares: se ejecutan en cada
+ * alta de persona o médico y en las importaciones masivas.
+ */
+public final class Validaciones {
+
+    private Validaciones() {
+    }
+
+    // 7 u 8 dígitos numéricos
+    public static boolean esDniValido(String dni) {
+        return dni != null && (dni.length() == 7 || dni.length() == 8) && sonDigitos(dni, 0);
+    }
+
+    // MP- seguido de 4 a 6 dígitos
+    public static boolean esMatriculaValida(String numero) {
+        return numero != null && numero.length() >= 7 && numero.length() <= 9
+                && numero.startsWith("MP-") && sonDigitos(numero, 3);
+    }
+
+    private static boolean sonDigitos(String valor, int desde) {
+        for (int i = desde; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
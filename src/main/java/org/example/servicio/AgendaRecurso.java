@@ -0,0 +1,117 @@
+package org.example.servicio;
+
+import org.example.entidades.Cita;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Turnos ocupados de un recurso (médico o sala) ordenados por hora de inicio.
+ * Los turnos reservados a través de {@link CitaManager} nunca se solapan, por lo que
+ * basta con mirar el turno anterior y el siguiente para detectar un conflicto.
+ * <p>
+ * Las reservas y liberaciones se hacen bajo el cerrojo del recurso; el mapa es concurrente para
+ * que {@link #citasEntre} pueda leerse sin ese cerrojo y sin copiar.
+ */
+class AgendaRecurso {
+    private final ConcurrentNavigableMap<LocalDateTime, Turno> turnos = new ConcurrentSkipListMap<>();
+
+    boolean estaLibre(LocalDateTime inicio, LocalDateTime fin) {
+        Map.Entry<LocalDateTime, Turno> anterior = turnos.floorEntry(inicio);
+        if (anterior != null && anterior.getValue().fin().isAfter(inicio)) {
+            return false;
+        }
+        Map.Entry<LocalDateTime, Turno> siguiente = turnos.higherEntry(inicio);
+        return siguiente == null || !siguiente.getKey().isBefore(fin);
+    }
+
+    /**
+     * Primer instante, a partir de {@code desde}, en que el recurso queda libre durante
+     * {@code duracion}. Salta de hueco en hueco, una búsqueda logarítmica por turno contiguo.
+     */
+    LocalDateTime siguienteLibre(LocalDateTime desde, Duration duracion) {
+        LocalDateTime inicio = desde;
+        Map.Entry<LocalDateTime, Turno> anterior = turnos.floorEntry(inicio);
+        if (anterior != null && anterior.getValue().fin().isAfter(inicio)) {
+            inicio = anterior.getValue().fin();
+        }
+        while (true) {
+            Map.Entry<LocalDateTime, Turno> siguiente = turnos.ceilingEntry(inicio);
+            if (siguiente == null || !siguiente.getKey().isBefore(inicio.plus(duracion))) {
+                return inicio;
+            }
+            inicio = siguiente.getValue().fin();
+        }
+    }
+
+    /**
+     * Ocupa el turno de la cita. Si ya hay otro turno que empieza a la misma hora no lo pisa y
+     * devuelve false: sólo puede pasar al incorporar citas sin validar, y la primera conserva
+     * el turno.
+     */
+    boolean reservar(Cita cita, LocalDateTime fin) {
+        return turnos.putIfAbsent(cita.getFechaHora(), new Turno(cita, fin)) == null;
+    }
+
+    boolean liberar(Cita cita) {
+        Turno turno = turnos.get(cita.getFechaHora());
+        if (turno == null || turno.cita() != cita) {
+            return false;
+        }
+        turnos.remove(cita.getFechaHora());
+        return true;
+    }
+
+    // Aplica la acción al turno inmediatamente anterior y al inmediatamente posterior a inicio
+    void paraVecinos(LocalDateTime inicio, BiConsumer<LocalDateTime, LocalDateTime> accion) {
+        Map.Entry<LocalDateTime, Turno> anterior = turnos.lowerEntry(inicio);
+        if (anterior != null) {
+            accion.accept(anterior.getKey(), anterior.getValue().fin());
+        }
+        Map.Entry<LocalDateTime, Turno> siguiente = turnos.ceilingEntry(inicio);
+        if (siguiente != null) {
+            accion.accept(siguiente.getKey(), siguiente.getValue().fin());
+        }
+    }
+
+    // Vista de sólo lectura de las citas que empiezan en [desde, hasta); refleja las reservas posteriores
+    Collection<Cita> citasEntre(LocalDateTime desde, LocalDateTime hasta) {
+        Collection<Turno> rango = turnos.subMap(desde, true, hasta, false).values();
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Cita> iterator() {
+                Iterator<Turno> iterador = rango.iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterador.hasNext();
+                    }
+
+                    @Override
+                    public Cita next() {
+                        return iterador.next().cita();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return rango.size();
+            }
+        };
+    }
+
+    int size() {
+        return turnos.size();
+    }
+
+    private record Turno(Cita cita, LocalDateTime fin) {
+    }
+}
@@ -0,0 +1,163 @@
+package org.example.servicio;
+
+import org.example.entidades.Departamento;
+import org.example.entidades.Medico;
+import org.example.entidades.Sala;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * Busca los primeros turnos en que un médico y una sala están libres a la vez.
+ * <p>
+ * La cola de prioridad tiene un candidato por médico con una cota inferior de su próximo turno
+ * con cualquier sala. Al sacar un médico primero se corre la cota por su propia agenda; si no
+ * se movió se calcula su turno exacto: para cada sala se salta por las agendas de ambos hasta un
+ * punto fijo, cortando en cuanto se pasa del mejor turno ya encontrado o se encuentra uno en la
+ * cota. Si el turno coincide con la cota se devuelve; si no, el médico vuelve a la cola con la
+ * cota nueva, así cada consulta mira sólo los médicos que llegan al frente de la cola.
+ * <p>
+ * La duración de cada par es la de {@link DuracionCitas#duracionPara}, la misma con la que
+ * {@link CitaManager} comprueba la reserva. Los turnos devueltos pueden reservarse todos juntos:
+ * un médico o una sala ya usados no se ofrecen otra vez hasta que termina su turno. El resultado
+ * es orientativo, otra reserva concurrente puede ocupar el turno antes de tomarlo.
+ */
+public class BuscadorTurnos {
+    private final CitaManager citaManager;
+
+    public BuscadorTurnos(CitaManager citaManager) {
+        this.citaManager = Objects.requireNonNull(citaManager, "El gestor de citas no puede ser nulo");
+    }
+
+    public List<TurnoLibre> buscar(Collection<Departamento> departamentos, ConsultaTurnos consulta) {
+        List<Medico> medicos = new ArrayList<>();
+        List<Sala> salas = new ArrayList<>();
+        for (Departamento departamento : departamentos) {
+            if (departamento.getEspecialidad() != consulta.getEspecialidad()) {
+                continue;
+            }
+            for (Medico medico : departamento.getMedicos()) {
+                // La reserva exige que la especialidad del médico sea la del departamento de la sala
+                if (medico.getEspecialidad() == consulta.getEspecialidad()
+                        && (consulta.getMedico() == null || consulta.getMedico() == medico)) {
+                    medicos.add(medico);
+                }
+            }
+            for (Sala sala : departamento.getSalas()) {
+                if (consulta.getTipoSala() == null
+                        || sala.getTipo().trim().equalsIgnoreCase(consulta.getTipoSala().trim())) {
+                    salas.add(sala);
+                }
+            }
+        }
+        List<TurnoLibre> turnos = new ArrayList<>();
+        if (medicos.isEmpty() || salas.isEmpty()) {
+            return turnos;
+        }
+
+        // Duración más corta de cada médico entre los tipos de sala: con ella su agenda da una cota
+        Map<String, Sala> salaPorTipo = new HashMap<>();
+        for (Sala sala : salas) {
+            salaPorTipo.putIfAbsent(sala.getTipo().trim().toLowerCase(Locale.ROOT), sala);
+        }
+        Duration[] duracionMinima = new Duration[medicos.size()];
+        for (int m = 0; m < medicos.size(); m++) {
+            for (Sala sala : salaPorTipo.values()) {
+                Duration duracion = citaManager.duracionPara(medicos.get(m), sala);
+                if (duracionMinima[m] == null || duracion.compareTo(duracionMinima[m]) < 0) {
+                    duracionMinima[m] = duracion;
+                }
+            }
+        }
+
+        PriorityQueue<Candidato> cola = new PriorityQueue<>(Comparator.comparing(Candidato::inicio)
+                .thenComparingInt(Candidato::medico));
+        for (int m = 0; m < medicos.size(); m++) {
+            cola.add(new Candidato(m, consulta.getDesde()));
+        }
+
+        // Fin del último turno ofrecido por recurso; los turnos salen en orden no decreciente
+        LocalDateTime[] ofrecidoMedico = new LocalDateTime[medicos.size()];
+        LocalDateTime[] ofrecidoSala = new LocalDateTime[salas.size()];
+
+        while (!cola.isEmpty() && turnos.size() < consulta.getCantidad()) {
+            Candidato candidato = cola.poll();
+            if (candidato.inicio().isAfter(consulta.getHasta())) {
+                break;
+            }
+            Medico medico = medicos.get(candidato.medico());
+            LocalDateTime desdeMedico = citaManager.siguienteLibreMedico(medico,
+                    maximo(candidato.inicio(), ofrecidoMedico[candidato.medico()]), duracionMinima[candidato.medico()]);
+            if (!desdeMedico.equals(candidato.inicio())) {
+                // Sólo la agenda del médico ya corre la cota: no hace falta mirar las salas todavía
+                cola.add(new Candidato(candidato.medico(), desdeMedico));
+                continue;
+            }
+
+            LocalDateTime mejor = null;
+            int mejorSala = -1;
+            for (int s = 0; s < salas.size() && !desdeMedico.equals(mejor); s++) {
+                LocalDateTime cota = mejor != null ? mejor : consulta.getHasta();
+                LocalDateTime inicio = turnoComun(medico, salas.get(s), maximo(desdeMedico, ofrecidoSala[s]), cota);
+                // A igual inicio gana la primera sala
+                if (inicio != null && (mejor == null || inicio.isBefore(mejor))) {
+                    mejor = inicio;
+                    mejorSala = s;
+                }
+            }
+            if (mejor == null) {
+                // Sin turnos para este médico antes de la fecha límite
+                continue;
+            }
+            if (!mejor.equals(candidato.inicio())) {
+                cola.add(new Candidato(candidato.medico(), mejor));
+                continue;
+            }
+
+            Sala sala = salas.get(mejorSala);
+            LocalDateTime fin = mejor.plus(citaManager.duracionPara(medico, sala));
+            turnos.add(new TurnoLibre(medico, sala, mejor, fin));
+            ofrecidoMedico[candidato.medico()] = fin;
+            ofrecidoSala[mejorSala] = fin;
+            cola.add(new Candidato(candidato.medico(), fin));
+        }
+        return turnos;
+    }
+
+    // Primer inicio desde la fecha dada en que ambos están libres, o null si pasa de la cota
+    private LocalDateTime turnoComun(Medico medico, Sala sala, LocalDateTime desde, LocalDateTime cota) {
+        Duration duracion = citaManager.duracionPara(medico, sala);
+        LocalDateTime inicio = desde;
+        while (!inicio.isAfter(cota)) {
+            LocalDateTime inicioMedico = citaManager.siguienteLibreMedico(medico, inicio, duracion);
+            LocalDateTime inicioComun = citaManager.siguienteLibreSala(sala, inicioMedico, duracion);
+            if (inicioComun.equals(inicio)) {
+                return inicio;
+            }
+            inicio = inicioComun;
+        }
+        return null;
+    }
+
+    private static LocalDateTime maximo(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return a.isAfter(b) ? a : b;
+    }
+
+    private record Candidato(int medico, LocalDateTime inicio) {
+    }
+}
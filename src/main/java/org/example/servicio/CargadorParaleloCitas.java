@@ -0,0 +1,246 @@
+package org.example.servicio;
+
+import org.example.entidades.Cita;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Sala;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Lectura en paralelo de un archivo CSV de citas (ver {@link CitaCsvCodec}) mapeado en memoria.
+ * <p>
+ * El archivo se parte en bloques de tamaño fijo. Una primera pasada paralela cuenta las comillas
+ * de cada bloque; con la paridad acumulada se sabe si el inicio de cada bloque cae dentro de un
+ * campo entre comillas, y cada límite se corre hasta el primer salto de línea que está fuera de
+ * ellas. Así ningún registro queda partido, aunque tenga saltos de línea en las observaciones.
+ * La segunda pasada decodifica cada bloque y agrupa sus citas por paciente, médico y sala. Los
+ * bloques se devuelven en el orden del archivo para que el resultado coincida con la lectura
+ * secuencial.
+ * <p>
+ * Los registros deben terminar en '\n' o "\r\n"; los saltos de línea dentro de comillas se
+ * conservan tal cual, igual que al leer con {@link LectorRegistrosCsv}.
+ */
+final class CargadorParaleloCitas {
+    static final int TAMANIO_BLOQUE_POR_DEFECTO = 8 * 1024 * 1024;
+    private static final int VENTANA_ALINEACION = 1024 * 1024;
+
+    private final Path archivo;
+    private final Map<String, Paciente> pacientes;
+    private final Map<String, Medico> medicos;
+    private final Map<String, Sala> salas;
+    private final ForkJoinPool pool;
+    private final int tamanioBloque;
+
+    CargadorParaleloCitas(Path archivo, Map<String, Paciente> pacientes, Map<String, Medico> medicos,
+                          Map<String, Sala> salas, ForkJoinPool pool, int tamanioBloque) {
+        if (tamanioBloque <= 0) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser positivo");
+        }
+        this.archivo = archivo;
+        this.pacientes = pacientes;
+        this.medicos = medicos;
+        this.salas = salas;
+        this.pool = pool;
+        this.tamanioBloque = tamanioBloque;
+    }
+
+    List<Bloque> cargar() throws IOException, CitaException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamanio = canal.size();
+            int cantidad = (int) Math.max(1, (tamanio + tamanioBloque - 1) / tamanioBloque);
+
+            List<Callable<Boolean>> conteos = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                long desde = (long) i * tamanioBloque;
+                conteos.add(() -> comillasImpares(canal, desde, Math.min(desde + tamanioBloque, tamanio)));
+            }
+            List<Boolean> impares = ejecutar(conteos);
+
+            List<Callable<Long>> alineaciones = new ArrayList<>(cantidad);
+            boolean dentroDeComillas = false;
+            for (int i = 0; i < cantidad; i++) {
+                long desde = (long) i * tamanioBloque;
+                boolean enComillas = dentroDeComillas;
+                alineaciones.add(() -> desde == 0 ? 0L : alinear(canal, desde, enComillas, tamanio));
+                dentroDeComillas ^= impares.get(i);
+            }
+            List<Long> inicios = ejecutar(alineaciones);
+
+            List<Callable<Bloque>> lecturas = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                long desde = inicios.get(i);
+                long hasta = i + 1 < cantidad ? inicios.get(i + 1) : tamanio;
+                lecturas.add(() -> leerBloque(canal, desde, hasta));
+            }
+            List<Bloque> bloques = ejecutar(lecturas);
+
+            // El primer error del archivo, con su número de línea global
+            long lineasPrevias = 0;
+            for (Bloque bloque : bloques) {
+                if (bloque.error != null) {
+                    if (bloque.error instanceof CitaException e) {
+                        throw e;
+                    }
+                    throw new CitaException("Línea " + (lineasPrevias + bloque.lineaError) + " inválida: "
+                            + bloque.error.getMessage(), bloque.error);
+                }
+                lineasPrevias += bloque.lineas;
+            }
+            return bloques;
+        }
+    }
+
+    private <T> List<T> ejecutar(List<Callable<T>> tareas) throws IOException {
+        List<T> resultados = new ArrayList<>(tareas.size());
+        try {
+            for (Future<T> futuro : pool.invokeAll(tareas)) {
+                resultados.add(futuro.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Carga de citas interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return resultados;
+    }
+
+    private static boolean comillasImpares(FileChannel canal, long desde, long hasta) throws IOException {
+        MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, desde, hasta - desde);
+        boolean impar = false;
+        for (int i = 0, largo = mapa.limit(); i < largo; i++) {
+            // En UTF-8 ningún byte de un carácter multibyte vale '"'
+            if (mapa.get(i) == '"') {
+                impar = !impar;
+            }
+        }
+        return impar;
+    }
+
+    // Posición siguiente al primer '\n' fuera de comillas desde la posición dada, o el fin del archivo
+    private static long alinear(FileChannel canal, long desde, boolean enComillas, long tamanio) throws IOException {
+        long posicion = desde;
+        while (posicion < tamanio) {
+            MappedByteBuffer ventana = canal.map(FileChannel.MapMode.READ_ONLY, posicion,
+                    Math.min(VENTANA_ALINEACION, tamanio - posicion));
+            for (int i = 0, largo = ventana.limit(); i < largo; i++) {
+                byte b = ventana.get(i);
+                if (b == '"') {
+                    enComillas = !enComillas;
+                } else if (b == '\n' && !enComillas) {
+                    return posicion + i + 1;
+                }
+            }
+            posicion += ventana.limit();
+        }
+        return tamanio;
+    }
+
+    private Bloque leerBloque(FileChannel canal, long desde, long hasta) throws IOException {
+        Bloque bloque = new Bloque();
+        if (desde >= hasta) {
+            return bloque;
+        }
+        if (hasta - desde > Integer.MAX_VALUE) {
+            throw new IOException("Registro demasiado grande a partir del byte " + desde);
+        }
+        ByteBuffer bytes = canal.map(FileChannel.MapMode.READ_ONLY, desde, hasta - desde);
+        CharBuffer texto;
+        try {
+            texto = StandardCharsets.UTF_8.newDecoder().decode(bytes);
+        } catch (CharacterCodingException e) {
+            throw new IOException("El archivo no es UTF-8 válido a partir del byte " + desde, e);
+        }
+
+        CitaCsvCodec codec = new CitaCsvCodec();
+        int largo = texto.length();
+        int inicio = 0;
+        boolean enComillas = false;
+        for (int i = 0; i <= largo; i++) {
+            // El fin del bloque cierra el último registro aunque no termine en salto de línea
+            char c = i < largo ? texto.charAt(i) : '\n';
+            if (c == '"') {
+                enComillas = !enComillas;
+                continue;
+            }
+            if (c != '\n') {
+                continue;
+            }
+            long linea = bloque.lineas + 1;
+            if (i < largo) {
+                bloque.lineas++;
+                if (enComillas) {
+                    continue;
+                }
+            }
+            int fin = i > inicio && texto.charAt(i - 1) == '\r' ? i - 1 : i;
+            CharSequence registro = texto.subSequence(inicio, fin);
+            inicio = i + 1;
+            if (esBlanco(registro)) {
+                continue;
+            }
+            try {
+                bloque.agregar(codec.decodificar(registro, pacientes, medicos, salas));
+            } catch (CitaException | DateTimeException | IllegalArgumentException e) {
+                bloque.error = e;
+                bloque.lineaError = linea;
+                return bloque;
+            }
+        }
+        return bloque;
+    }
+
+    private static boolean esBlanco(CharSequence registro) {
+        for (int i = 0; i < registro.length(); i++) {
+            if (!Character.isWhitespace(registro.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Citas de un bloque en el orden del archivo, con los índices parciales por paciente, médico
+     * y sala que {@link CitaManager} combina al final.
+     */
+    static final class Bloque {
+        final List<Cita> citas = new ArrayList<>();
+        final Map<Paciente, List<Cita>> porPaciente = new IdentityHashMap<>();
+        final Map<Medico, List<Cita>> porMedico = new IdentityHashMap<>();
+        final Map<Sala, List<Cita>> porSala = new IdentityHashMap<>();
+        long lineas;
+        private Exception error;
+        private long lineaError;
+
+        private void agregar(Cita cita) {
+            citas.add(cita);
+            porPaciente.computeIfAbsent(cita.getPaciente(), p -> new ArrayList<>()).add(cita);
+            porMedico.computeIfAbsent(cita.getMedico(), m -> new ArrayList<>()).add(cita);
+            porSala.computeIfAbsent(cita.getSala(), s -> new ArrayList<>()).add(cita);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.servicio;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cerrojos por franjas para los recursos de una cita (paciente, médico y sala).
+ * Las franjas se toman siempre en orden ascendente, así dos reservas que comparten
+ * recursos nunca pueden bloquearse mutuamente.
+ */
+class CerrojosRecursos {
+    private final ReentrantLock[] franjas;
+    private final int mascara;
+
+    CerrojosRecursos(int cantidadMinima) {
+        if (cantidadMinima <= 0) {
+            throw new IllegalArgumentException("La cantidad de franjas debe ser mayor que cero");
+        }
+        // Potencia de dos para calcular la franja con una máscara
+        int cantidad = Integer.highestOneBit(cantidadMinima - 1) << 1;
+        if (cantidad <= 0) {
+            cantidad = 1;
+        }
+        this.franjas = new ReentrantLock[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+        this.mascara = cantidad - 1;
+    }
+
+    int franja(Object recurso) {
+        int h = recurso.hashCode();
+        h ^= (h >>> 16);
+        return h & mascara;
+    }
+
+    /**
+     * Bloquea las franjas de todos los recursos y devuelve los índices tomados,
+     * que deben pasarse luego a {@link #liberar(int[])}.
+     */
+    int[] bloquear(Object... recursos) {
+        int[] indices = new int[recursos.length];
+        for (int i = 0; i < recursos.length; i++) {
+            indices[i] = franja(recursos[i]);
+        }
+        return bloquearFranjas(indices);
+    }
+
+    int[] bloquearFranjas(int[] indices) {
+        Arrays.sort(indices);
+        // Quitar duplicados: ReentrantLock es reentrante pero así se libera una sola vez
+        int unicos = 0;
+        for (int i = 0; i < indices.length; i++) {
+            if (i == 0 || indices[i] != indices[i - 1]) {
+                indices[unicos++] = indices[i];
+            }
+        }
+        int[] tomados = Arrays.copyOf(indices, unicos);
+        int bloqueados = 0;
+        try {
+            for (int indice : tomados) {
+                franjas[indice].lock();
+                bloqueados++;
+            }
+        } catch (RuntimeException | Error e) {
+            for (int i = bloqueados - 1; i >= 0; i--) {
+                franjas[tomados[i]].unlock();
+            }
+            throw e;
+        }
+        return tomados;
+    }
+
+    void liberar(int[] tomados) {
+        for (int i = tomados.length - 1; i >= 0; i--) {
+            franjas[tomados[i]].unlock();
+        }
+    }
+
+    ReentrantLock cerrojo(Object recurso) {
+        return franjas[franja(recurso)];
+    }
+
+    ReentrantLock cerrojoDeFranja(int franja) {
+        return franjas[franja];
+    }
+
+    int cantidad() {
+        return franjas.length;
+    }
+}
@@ -0,0 +1,311 @@
+package org.example.servicio;
+
+import org.example.entidades.Cita;
+import org.example.entidades.EstadoCita;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Sala;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Formato CSV de una cita según RFC 4180: DNI del paciente, DNI del médico, número de sala,
+ * fecha y hora ISO, costo, estado y observaciones. Los campos con coma, comillas o saltos de
+ * línea van entre comillas dobles, con las comillas internas duplicadas, así que un registro
+ * puede ocupar varias líneas; para leerlos está {@link LectorRegistrosCsv}, que conserva los
+ * saltos de línea de los campos tal cual.
+ * <p>
+ * Codifica sobre un {@link StringBuilder} reutilizado y decodifica recorriendo el registro una
+ * sola vez, guardando los límites de cada campo, sin {@code split} ni expresiones regulares. Las
+ * fechas sin nanosegundos y los costos de hasta 18 dígitos se escriben y leen dígito a dígito;
+ * el resto pasa por {@code LocalDateTime} y {@code BigDecimal}. Cada instancia reutiliza sus
+ * buffers, por lo que no debe compartirse entre hilos.
+ */
+public final class CitaCsvCodec {
+    private static final int CAMPOS = 7;
+    private static final int MAXIMO_DIGITOS_RAPIDOS = 18;
+    private static final EstadoCita[] ESTADOS = EstadoCita.values();
+
+    private final StringBuilder linea = new StringBuilder(160);
+    private final StringBuilder campo = new StringBuilder(64);
+    private char[] caracteres = new char[160];
+    private final int[] inicios = new int[CAMPOS];
+    private final int[] fines = new int[CAMPOS];
+    private final boolean[] entrecomillados = new boolean[CAMPOS];
+
+    /**
+     * Registro de la cita, sin salto de línea final. El resultado es el buffer interno y se
+     * sobrescribe en la siguiente llamada.
+     */
+    public CharSequence codificar(Cita cita) {
+        linea.setLength(0);
+        codificar(cita, linea);
+        return linea;
+    }
+
+    // Escribe el registro y un salto de línea sin crear un String intermedio
+    public void escribir(Cita cita, Writer writer) throws IOException {
+        codificar(cita);
+        linea.append('\n');
+        int largo = linea.length();
+        if (caracteres.length < largo) {
+            caracteres = new char[Math.max(largo, caracteres.length * 2)];
+        }
+        linea.getChars(0, largo, caracteres, 0);
+        writer.write(caracteres, 0, largo);
+    }
+
+    public static void codificar(Cita cita, StringBuilder destino) {
+        agregarTexto(destino, cita.getPaciente().getDni());
+        destino.append(',');
+        agregarTexto(destino, cita.getMedico().getDni());
+        destino.append(',');
+        agregarTexto(destino, cita.getSala().getNumero());
+        destino.append(',');
+        agregarFecha(destino, cita.getFechaHora());
+        destino.append(',');
+        destino.append(cita.getCosto().toPlainString());
+        destino.append(',');
+        destino.append(cita.getEstado().name());
+        destino.append(',');
+        agregarTexto(destino, cita.getObservaciones());
+    }
+
+    public Cita decodificar(CharSequence registro, Map<String, Paciente> pacientes,
+                            Map<String, Medico> medicos, Map<String, Sala> salas) throws CitaException {
+        separarCampos(registro);
+        String dniPaciente = texto(registro, 0);
+        String dniMedico = texto(registro, 1);
+        String numeroSala = texto(registro, 2);
+
+        Paciente paciente = pacientes.get(dniPaciente);
+        Medico medico = medicos.get(dniMedico);
+        Sala sala = salas.get(numeroSala);
+        if (paciente == null) {
+            throw new CitaException("Paciente no encontrado: " + dniPaciente);
+        }
+        if (medico == null) {
+            throw new CitaException("Médico no encontrado: " + dniMedico);
+        }
+        if (sala == null) {
+            throw new CitaException("Sala no encontrada: " + numeroSala);
+        }
+
+        return Cita.builder()
+                .paciente(paciente)
+                .medico(medico)
+                .sala(sala)
+                .fechaHora(leerFecha(registro, inicios[3], fines[3]))
+                .costo(leerCosto(registro, inicios[4], fines[4]))
+                .estado(leerEstado(registro, inicios[5], fines[5]))
+                .observaciones(texto(registro, 6))
+                .build();
+    }
+
+    private static void agregarTexto(StringBuilder destino, String valor) {
+        if (!requiereComillas(valor)) {
+            destino.append(valor);
+            return;
+        }
+        destino.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                destino.append('"');
+            }
+            destino.append(c);
+        }
+        destino.append('"');
+    }
+
+    private static boolean requiereComillas(String valor) {
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Mismo texto que LocalDateTime.toString(), que omite los segundos en cero
+    private static void agregarFecha(StringBuilder destino, LocalDateTime fecha) {
+        int anio = fecha.getYear();
+        if (anio < 0 || anio > 9999 || fecha.getNano() != 0) {
+            destino.append(fecha);
+            return;
+        }
+        agregarDigitos(destino, anio, 4);
+        destino.append('-');
+        agregarDigitos(destino, fecha.getMonthValue(), 2);
+        destino.append('-');
+        agregarDigitos(destino, fecha.getDayOfMonth(), 2);
+        destino.append('T');
+        agregarDigitos(destino, fecha.getHour(), 2);
+        destino.append(':');
+        agregarDigitos(destino, fecha.getMinute(), 2);
+        if (fecha.getSecond() != 0) {
+            destino.append(':');
+            agregarDigitos(destino, fecha.getSecond(), 2);
+        }
+    }
+
+    private static void agregarDigitos(StringBuilder destino, int valor, int cantidad) {
+        for (int divisor = cantidad == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+            destino.append((char) ('0' + valor / divisor % 10));
+        }
+    }
+
+    private void separarCampos(CharSequence registro) {
+        int largo = registro.length();
+        int cantidad = 0;
+        int i = 0;
+        while (true) {
+            if (cantidad == CAMPOS) {
+                throw new IllegalArgumentException("Se esperaban " + CAMPOS + " campos y hay más");
+            }
+            if (i < largo && registro.charAt(i) == '"') {
+                int j = i + 1;
+                while (true) {
+                    if (j >= largo) {
+                        throw new IllegalArgumentException("Comillas sin cerrar en el campo " + (cantidad + 1));
+                    }
+                    if (registro.charAt(j) == '"') {
+                        if (j + 1 < largo && registro.charAt(j + 1) == '"') {
+                            j += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    j++;
+                }
+                inicios[cantidad] = i + 1;
+                fines[cantidad] = j;
+                entrecomillados[cantidad] = true;
+                i = j + 1;
+                if (i < largo && registro.charAt(i) != ',') {
+                    throw new IllegalArgumentException("Texto después de las comillas de cierre en el campo " + (cantidad + 1));
+                }
+            } else {
+                int j = i;
+                while (j < largo && registro.charAt(j) != ',') {
+                    j++;
+                }
+                inicios[cantidad] = i;
+                fines[cantidad] = j;
+                entrecomillados[cantidad] = false;
+                i = j;
+            }
+            cantidad++;
+            if (i >= largo) {
+                break;
+            }
+            i++;
+        }
+        if (cantidad != CAMPOS) {
+            throw new IllegalArgumentException("Se esperaban " + CAMPOS + " campos y hay " + cantidad);
+        }
+    }
+
+    private String texto(CharSequence registro, int indice) {
+        int inicio = inicios[indice];
+        int fin = fines[indice];
+        if (!entrecomillados[indice]) {
+            return registro.subSequence(inicio, fin).toString();
+        }
+        campo.setLength(0);
+        for (int i = inicio; i < fin; i++) {
+            char c = registro.charAt(i);
+            campo.append(c);
+            if (c == '"') {
+                i++;
+            }
+        }
+        return campo.toString();
+    }
+
+    private static LocalDateTime leerFecha(CharSequence registro, int inicio, int fin) {
+        int largo = fin - inicio;
+        if ((largo == 16 || largo == 19)
+                && registro.charAt(inicio + 4) == '-' && registro.charAt(inicio + 7) == '-'
+                && registro.charAt(inicio + 10) == 'T' && registro.charAt(inicio + 13) == ':'
+                && (largo == 16 || registro.charAt(inicio + 16) == ':')) {
+            int anio = digitos(registro, inicio, 4);
+            int mes = digitos(registro, inicio + 5, 2);
+            int dia = digitos(registro, inicio + 8, 2);
+            int hora = digitos(registro, inicio + 11, 2);
+            int minuto = digitos(registro, inicio + 14, 2);
+            int segundo = largo == 19 ? digitos(registro, inicio + 17, 2) : 0;
+            if ((anio | mes | dia | hora | minuto | segundo) >= 0) {
+                return LocalDateTime.of(anio, mes, dia, hora, minuto, segundo);
+            }
+        }
+        return LocalDateTime.parse(registro.subSequence(inicio, fin));
+    }
+
+    // Valor de los dígitos, o -1 si alguno no lo es
+    private static int digitos(CharSequence registro, int desde, int cantidad) {
+        int valor = 0;
+        for (int i = desde; i < desde + cantidad; i++) {
+            char c = registro.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return valor;
+    }
+
+    private static BigDecimal leerCosto(CharSequence registro, int inicio, int fin) {
+        int i = inicio;
+        boolean negativo = i < fin && registro.charAt(i) == '-';
+        if (negativo) {
+            i++;
+        }
+        long sinEscala = 0;
+        int cifras = 0;
+        int escala = -1;
+        for (; i < fin; i++) {
+            char c = registro.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++cifras > MAXIMO_DIGITOS_RAPIDOS) {
+                    break;
+                }
+                sinEscala = sinEscala * 10 + (c - '0');
+                if (escala >= 0) {
+                    escala++;
+                }
+            } else if (c == '.' && escala < 0) {
+                escala = 0;
+            } else {
+                break;
+            }
+        }
+        if (i == fin && cifras > 0) {
+            return BigDecimal.valueOf(negativo ? -sinEscala : sinEscala, Math.max(escala, 0));
+        }
+        // Exponentes, signo '+' o más de 18 cifras; BigDecimal informa los formatos inválidos
+        return new BigDecimal(registro.subSequence(inicio, fin).toString());
+    }
+
+    private static EstadoCita leerEstado(CharSequence registro, int inicio, int fin) {
+        for (EstadoCita estado : ESTADOS) {
+            String nombre = estado.name();
+            if (nombre.length() != fin - inicio) {
+                continue;
+            }
+            int i = 0;
+            while (i < nombre.length() && nombre.charAt(i) == registro.charAt(inicio + i)) {
+                i++;
+            }
+            if (i == nombre.length()) {
+                return estado;
+            }
+        }
+        throw new IllegalArgumentException("Estado de cita desconocido: " + registro.subSequence(inicio, fin));
+    }
+}
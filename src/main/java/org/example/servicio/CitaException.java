@@ -5,5 +5,14 @@ import lombok.experimental.StandardException;
 
 @StandardException
 public class CitaException extends Exception {
-}
+    private MotivoRechazo motivo;
+
+    public CitaException(MotivoRechazo motivo) {
+        this(motivo.getMensaje());
+        this.motivo = motivo;
+    }
 
+    public MotivoRechazo getMotivo() {
+        return motivo;
+    }
+}
@@ -1,94 +1,394 @@
 package org.example.servicio;
 
 import org.example.entidades.Cita;
+import org.example.entidades.EstadoCita;
 import org.example.entidades.Medico;
 import org.example.entidades.Paciente;
 import org.example.entidades.Sala;
+import org.example.servicio.MetricasCitas.Operacion;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class CitaManager implements CitaService {
-    private final List<Cita> citas = new ArrayList<>();
+    private static final int TAMANIO_BUFFER_CSV = 64 * 1024;
+    // Solicitudes de un lote que se programan con las mismas franjas tomadas
+    static final int TAMANIO_TRAMO_LOTE = 16;
+
+    private final Queue<Cita> citas = new ConcurrentLinkedQueue<>();
+    // Cada lista o agenda de los índices se modifica y se lee sólo con la franja de su clave tomada
     private final Map<Paciente, List<Cita>> citasPorPaciente = new ConcurrentHashMap<>();
     private final Map<Medico, List<Cita>> citasPorMedico = new ConcurrentHashMap<>();
     private final Map<Sala, List<Cita>> citasPorSala = new ConcurrentHashMap<>();
+    private final Map<Medico, AgendaRecurso> agendaPorMedico = new ConcurrentHashMap<>();
+    private final Map<Sala, AgendaRecurso> agendaPorSala = new ConcurrentHashMap<>();
+    private final DuracionCitas duraciones;
+    private final CerrojosRecursos cerrojos;
+    // Índice de ocupación opcional; si está presente acelera las comprobaciones de disponibilidad
+    private final OcupacionRecursos ocupacion;
+    private final MetricasCitas metricas = new MetricasCitas();
+    private final ContadoresCitas contadores = new ContadoresCitas();
+
+    public CitaManager() {
+        this(DuracionCitas.porDefecto());
+    }
+
+    public CitaManager(DuracionCitas duraciones) {
+        this(duraciones, Runtime.getRuntime().availableProcessors() * 16);
+    }
+
+    public CitaManager(DuracionCitas duraciones, OcupacionRecursos ocupacion) {
+        this(duraciones, Runtime.getRuntime().availableProcessors() * 16, ocupacion);
+    }
+
+    public CitaManager(DuracionCitas duraciones, int franjasDeBloqueo) {
+        this(duraciones, franjasDeBloqueo, null);
+    }
+
+    public CitaManager(DuracionCitas duraciones, int franjasDeBloqueo, OcupacionRecursos ocupacion) {
+        this.duraciones = Objects.requireNonNull(duraciones, "Las duraciones no pueden ser nulas");
+        this.cerrojos = new CerrojosRecursos(franjasDeBloqueo);
+        this.ocupacion = ocupacion;
+        metricas.registrarIndicador("citasPorPaciente", citasPorPaciente::size);
+        metricas.registrarIndicador("citasPorMedico", citasPorMedico::size);
+        metricas.registrarIndicador("citasPorSala", citasPorSala::size);
+    }
+
+    public MetricasCitas getMetricas() {
+        return metricas;
+    }
+
+    public ContadoresCitas getContadores() {
+        return contadores;
+    }
 
     @Override
     public Cita programarCita(Paciente paciente, Medico medico, Sala sala,
                               LocalDateTime fechaHora, BigDecimal costo) throws CitaException {
-        validarCita(fechaHora, costo);
+        long inicio = System.nanoTime();
+        try {
+            MotivoRechazo motivo = validarCita(fechaHora, costo, LocalDateTime.now());
+            if (motivo != null) {
+                metricas.registrarRechazo(motivo);
+                throw new CitaException(motivo);
+            }
+            LocalDateTime fin = fechaHora.plus(duraciones.duracionPara(medico, sala));
 
-        if (!esMedicoDisponible(medico, fechaHora)) {
-            throw new CitaException("El médico no está disponible en la fecha y hora solicitadas.");
+            // Comprobación y alta atómicas respecto de otras reservas sobre los mismos recursos
+            int[] franjas = cerrojos.bloquear(paciente, medico, sala);
+            try {
+                motivo = comprobarDisponibilidad(medico, sala, fechaHora, fin);
+                if (motivo != null) {
+                    metricas.registrarRechazo(motivo);
+                    throw new CitaException(motivo);
+                }
+
+                Cita cita = Cita.builder()
+                        .paciente(paciente)
+                        .medico(medico)
+                        .sala(sala)
+                        .fechaHora(fechaHora)
+                        .costo(costo)
+                        .build();
+                registrarCita(cita, fin);
+                return cita;
+            } finally {
+                cerrojos.liberar(franjas);
+            }
+        } finally {
+            metricas.registrarLatencia(Operacion.PROGRAMAR_CITA, System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Programa el lote validando todo contra el mismo instante y recorriendo las solicitudes por
+     * fecha y hora, de modo que cada alta queda visible para las siguientes del mismo lote. Ante
+     * un conflicto dentro del lote gana la solicitud que empieza antes (a igual hora, la primera
+     * de la lista).
+     * <p>
+     * Las solicitudes sólo compiten entre sí si comparten médico o sala, así que el lote se
+     * reparte en grupos de recursos conectados y cada grupo se recorre en tramos de a lo sumo
+     * {@link #TAMANIO_TRAMO_LOTE} solicitudes, tomando sólo las franjas de ese tramo. Un lote
+     * grande no retiene todas las franjas y las reservas individuales se intercalan entre tramos.
+     */
+    @Override
+    public List<ResultadoCita> programarCitas(List<SolicitudCita> solicitudes) {
+        long inicio = System.nanoTime();
+        try {
+            int cantidad = solicitudes.size();
+            ResultadoCita[] resultados = new ResultadoCita[cantidad];
+            LocalDateTime ahora = LocalDateTime.now();
+
+            List<Integer> validas = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                SolicitudCita solicitud = solicitudes.get(i);
+                MotivoRechazo motivo = validarCita(solicitud.fechaHora(), solicitud.costo(), ahora);
+                if (motivo != null) {
+                    metricas.registrarRechazo(motivo);
+                    resultados[i] = ResultadoCita.rechazada(solicitud, motivo);
+                } else {
+                    validas.add(i);
+                }
+            }
+            validas.sort(Comparator.comparing((Integer i) -> solicitudes.get(i).fechaHora())
+                    .thenComparingInt(i -> i));
+
+            for (List<Integer> grupo : agruparPorRecursos(solicitudes, validas)) {
+                for (int desde = 0; desde < grupo.size(); desde += TAMANIO_TRAMO_LOTE) {
+                    programarTramo(solicitudes, grupo.subList(desde,
+                            Math.min(desde + TAMANIO_TRAMO_LOTE, grupo.size())), resultados);
+                }
+            }
+            return Arrays.asList(resultados);
+        } finally {
+            metricas.registrarLatencia(Operacion.PROGRAMAR_CITAS, System.nanoTime() - inicio);
         }
+    }
 
-        if (!esSalaDisponible(sala, fechaHora)) {
-            throw new CitaException("La sala no está disponible en la fecha y hora solicitadas.");
+    private void programarTramo(List<SolicitudCita> solicitudes, List<Integer> tramo, ResultadoCita[] resultados) {
+        int[] indicesFranjas = new int[tramo.size() * 3];
+        int posicion = 0;
+        for (int i : tramo) {
+            SolicitudCita solicitud = solicitudes.get(i);
+            indicesFranjas[posicion++] = cerrojos.franja(solicitud.paciente());
+            indicesFranjas[posicion++] = cerrojos.franja(solicitud.medico());
+            indicesFranjas[posicion++] = cerrojos.franja(solicitud.sala());
         }
 
-        if (!medico.getEspecialidad().equals(sala.getDepartamento().getEspecialidad())) {
-            throw new CitaException("La especialidad del médico no coincide con el departamento de la sala.");
+        int[] franjas = cerrojos.bloquearFranjas(indicesFranjas);
+        try {
+            for (int i : tramo) {
+                SolicitudCita solicitud = solicitudes.get(i);
+                LocalDateTime fin = solicitud.fechaHora()
+                        .plus(duraciones.duracionPara(solicitud.medico(), solicitud.sala()));
+                MotivoRechazo motivo = comprobarDisponibilidad(solicitud.medico(), solicitud.sala(),
+                        solicitud.fechaHora(), fin);
+                if (motivo != null) {
+                    metricas.registrarRechazo(motivo);
+                    resultados[i] = ResultadoCita.rechazada(solicitud, motivo);
+                    continue;
+                }
+
+                Cita cita = Cita.builder()
+                        .paciente(solicitud.paciente())
+                        .medico(solicitud.medico())
+                        .sala(solicitud.sala())
+                        .fechaHora(solicitud.fechaHora())
+                        .costo(solicitud.costo())
+                        .build();
+                registrarCita(cita, fin);
+                resultados[i] = ResultadoCita.aceptada(solicitud, cita);
+            }
+        } finally {
+            cerrojos.liberar(franjas);
         }
+    }
 
-        Cita cita = Cita.builder()
-                .paciente(paciente)
-                .medico(medico)
-                .sala(sala)
-                .fechaHora(fechaHora)
-                .costo(costo)
-                .build();
+    // Componentes conexas por médico y sala, cada una conservando el orden de la lista recibida
+    private static List<List<Integer>> agruparPorRecursos(List<SolicitudCita> solicitudes, List<Integer> ordenadas) {
+        Map<Object, Object> padres = new IdentityHashMap<>();
+        for (int i : ordenadas) {
+            SolicitudCita solicitud = solicitudes.get(i);
+            Object medico = raiz(padres, solicitud.medico());
+            Object sala = raiz(padres, solicitud.sala());
+            if (medico != sala) {
+                padres.put(sala, medico);
+            }
+        }
+        Map<Object, List<Integer>> grupos = new IdentityHashMap<>();
+        List<List<Integer>> resultado = new ArrayList<>();
+        for (int i : ordenadas) {
+            Object raiz = raiz(padres, solicitudes.get(i).medico());
+            List<Integer> grupo = grupos.get(raiz);
+            if (grupo == null) {
+                grupo = new ArrayList<>();
+                grupos.put(raiz, grupo);
+                resultado.add(grupo);
+            }
+            grupo.add(i);
+        }
+        return resultado;
+    }
+
+    private static Object raiz(Map<Object, Object> padres, Object recurso) {
+        Object raiz = recurso;
+        for (Object padre; (padre = padres.get(raiz)) != null; ) {
+            raiz = padre;
+        }
+        // Compresión de caminos: los recursos recorridos apuntan directo a la raíz
+        for (Object actual = recurso; actual != raiz; ) {
+            actual = padres.put(actual, raiz);
+        }
+        return raiz;
+    }
+
+    // Debe llamarse con las franjas del paciente, el médico y la sala de la cita tomadas
+    private void registrarCita(Cita cita, LocalDateTime fin) {
+        Paciente paciente = cita.getPaciente();
+        Medico medico = cita.getMedico();
+        Sala sala = cita.getSala();
         citas.add(cita);
+        contadores.registrar(cita.getEstado());
 
         actualizarIndicePaciente(paciente, cita);
         actualizarIndiceMedico(medico, cita);
         actualizarIndiceSala(sala, cita);
+        // Las citas canceladas no ocupan el horario del médico ni de la sala
+        // Una cita incorporada sin validar que empieza junto con otra no le quita el turno
+        if (cita.getEstado() != EstadoCita.CANCELADA) {
+            if (agendaPorMedico.computeIfAbsent(medico, m -> new AgendaRecurso()).reservar(cita, fin)
+                    && ocupacion != null) {
+                ocupacion.reservar(medico, cita.getFechaHora(), fin);
+            }
+            if (agendaPorSala.computeIfAbsent(sala, s -> new AgendaRecurso()).reservar(cita, fin)
+                    && ocupacion != null) {
+                ocupacion.reservar(sala, cita.getFechaHora(), fin);
+            }
+        }
 
         paciente.addCita(cita);
         medico.addCita(cita);
         sala.addCita(cita);
-
-        return cita;
     }
 
-    private void validarCita(LocalDateTime fechaHora, BigDecimal costo) throws CitaException {
-        if (fechaHora.isBefore(LocalDateTime.now())) {
-            throw new CitaException("No se puede programar una cita en el pasado.");
+    private MotivoRechazo validarCita(LocalDateTime fechaHora, BigDecimal costo, LocalDateTime ahora) {
+        if (fechaHora.isBefore(ahora)) {
+            return MotivoRechazo.FECHA_PASADA;
         }
 
         if (costo.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new CitaException("El costo debe ser mayor que cero.");
+            return MotivoRechazo.COSTO_INVALIDO;
         }
+        return null;
     }
 
-    private boolean esMedicoDisponible(Medico medico, LocalDateTime fechaHora) {
-        List<Cita> citasExistentes = citasPorMedico.get(medico);
-        if (citasExistentes != null) {
-            for (Cita citaExistente : citasExistentes) {
-                if (Math.abs(citaExistente.getFechaHora().compareTo(fechaHora)) < 2) {
-                    return false;
-                }
-            }
+    // Debe llamarse con las franjas del médico y la sala tomadas
+    private MotivoRechazo comprobarDisponibilidad(Medico medico, Sala sala,
+                                                  LocalDateTime inicio, LocalDateTime fin) {
+        if (!esMedicoDisponible(medico, inicio, fin)) {
+            return MotivoRechazo.MEDICO_OCUPADO;
+        }
+
+        if (!esSalaDisponible(sala, inicio, fin)) {
+            return MotivoRechazo.SALA_OCUPADA;
+        }
+
+        if (!medico.getEspecialidad().equals(sala.getDepartamento().getEspecialidad())) {
+            return MotivoRechazo.ESPECIALIDAD_INCOMPATIBLE;
+        }
+        return null;
+    }
+
+    private boolean esMedicoDisponible(Medico medico, LocalDateTime inicio, LocalDateTime fin) {
+        // El índice de ocupación es conservador: un "libre" es definitivo, un "ocupado" se confirma
+        if (ocupacion != null && ocupacion.estaLibre(medico, inicio, fin)) {
+            return true;
+        }
+        AgendaRecurso agenda = agendaPorMedico.get(medico);
+        return agenda == null || agenda.estaLibre(inicio, fin);
+    }
+
+    private boolean esSalaDisponible(Sala sala, LocalDateTime inicio, LocalDateTime fin) {
+        if (ocupacion != null && ocupacion.estaLibre(sala, inicio, fin)) {
+            return true;
         }
-        return true;
+        AgendaRecurso agenda = agendaPorSala.get(sala);
+        return agenda == null || agenda.estaLibre(inicio, fin);
     }
 
-    private boolean esSalaDisponible(Sala sala, LocalDateTime fechaHora) {
-        List<Cita> citasExistentes = citasPorSala.get(sala);
-        if (citasExistentes != null) {
-            for (Cita citaExistente : citasExistentes) {
-                if (Math.abs(citaExistente.getFechaHora().compareTo(fechaHora)) < 2) {
-                    return false;
+    /**
+     * Cambia el estado de una cita. Al cancelarla se libera su turno en las agendas y en el
+     * índice de ocupación; una cita cancelada no puede volver a otro estado.
+     */
+    @Override
+    public void cambiarEstado(Cita cita, EstadoCita estado) throws CitaException {
+        long inicio = System.nanoTime();
+        try {
+            Objects.requireNonNull(estado, "El estado no puede ser nulo");
+            int[] franjas = cerrojos.bloquear(cita.getPaciente(), cita.getMedico(), cita.getSala());
+            try {
+                EstadoCita anterior = cita.getEstado();
+                if (anterior == estado) {
+                    return;
+                }
+                if (anterior == EstadoCita.CANCELADA) {
+                    throw new CitaException("Una cita cancelada no puede cambiar de estado.");
                 }
+                cita.setEstado(estado);
+                contadores.cambiar(anterior, estado);
+                if (estado == EstadoCita.CANCELADA) {
+                    LocalDateTime fin = cita.getFechaHora()
+                            .plus(duraciones.duracionPara(cita.getMedico(), cita.getSala()));
+                    liberarTurno(cita.getMedico(), agendaPorMedico.get(cita.getMedico()), cita, fin);
+                    liberarTurno(cita.getSala(), agendaPorSala.get(cita.getSala()), cita, fin);
+                }
+            } finally {
+                cerrojos.liberar(franjas);
             }
+        } finally {
+            metricas.registrarLatencia(Operacion.CAMBIAR_ESTADO, System.nanoTime() - inicio);
+        }
+    }
+
+    private void liberarTurno(Object recurso, AgendaRecurso agenda, Cita cita, LocalDateTime fin) {
+        if (agenda == null || !agenda.liberar(cita)) {
+            return;
+        }
+        if (ocupacion != null) {
+            ocupacion.liberar(recurso, cita.getFechaHora(), fin);
+            // Los slots de borde pueden estar compartidos con los turnos vecinos
+            agenda.paraVecinos(cita.getFechaHora(), (inicio, finVecino) -> ocupacion.reservar(recurso, inicio, finVecino));
+        }
+    }
+
+    Duration duracionPara(Medico medico, Sala sala) {
+        return duraciones.duracionPara(medico, sala);
+    }
+
+    LocalDateTime siguienteLibreMedico(Medico medico, LocalDateTime desde, Duration duracion) {
+        return siguienteLibre(agendaPorMedico, medico, desde, duracion);
+    }
+
+    LocalDateTime siguienteLibreSala(Sala sala, LocalDateTime desde, Duration duracion) {
+        return siguienteLibre(agendaPorSala, sala, desde, duracion);
+    }
+
+    private <K> LocalDateTime siguienteLibre(Map<K, AgendaRecurso> agendas, K clave,
+                                             LocalDateTime desde, Duration duracion) {
+        ReentrantLock cerrojo = cerrojos.cerrojo(clave);
+        cerrojo.lock();
+        try {
+            AgendaRecurso agenda = agendas.get(clave);
+            return agenda != null ? agenda.siguienteLibre(desde, duracion) : desde;
+        } finally {
+            cerrojo.unlock();
         }
-        return true;
     }
 
     private void actualizarIndicePaciente(Paciente paciente, Cita cita) {
@@ -120,44 +420,254 @@ public class CitaManager implements CitaService {
 
     @Override
     public List<Cita> getCitasPorPaciente(Paciente paciente) {
-        List<Cita> citasPaciente = citasPorPaciente.get(paciente);
-        if (citasPaciente != null) {
-            return Collections.unmodifiableList(citasPaciente);
-        } else {
-            return Collections.emptyList();
-        }
+        return copiarIndice(citasPorPaciente, paciente);
     }
 
     @Override
     public List<Cita> getCitasPorMedico(Medico medico) {
-        List<Cita> citasMedico = citasPorMedico.get(medico);
-        if (citasMedico != null) {
-            return Collections.unmodifiableList(citasMedico);
-        } else {
-            return Collections.emptyList();
-        }
+        return copiarIndice(citasPorMedico, medico);
     }
 
     @Override
     public List<Cita> getCitasPorSala(Sala sala) {
-        List<Cita> citasSala = citasPorSala.get(sala);
-        if (citasSala != null) {
-            return Collections.unmodifiableList(citasSala);
-        } else {
-            return Collections.emptyList();
+        return copiarIndice(citasPorSala, sala);
+    }
+
+    /**
+     * Citas no canceladas del médico que empiezan en {@code [desde, hasta)}, ordenadas por hora.
+     * Es una vista de sólo lectura sobre su agenda, sin copiar ni tomar cerrojos, que refleja las
+     * altas y cancelaciones posteriores; {@link #getCitasPorMedico} devuelve en cambio una copia
+     * de todas, canceladas incluidas, en orden de alta.
+     */
+    public Collection<Cita> getCitasMedicoEntre(Medico medico, LocalDateTime desde, LocalDateTime hasta) {
+        return agendaPorMedico.computeIfAbsent(medico, m -> new AgendaRecurso()).citasEntre(desde, hasta);
+    }
+
+    // Igual que getCitasMedicoEntre, sobre la agenda de la sala
+    public Collection<Cita> getCitasSalaEntre(Sala sala, LocalDateTime desde, LocalDateTime hasta) {
+        return agendaPorSala.computeIfAbsent(sala, s -> new AgendaRecurso()).citasEntre(desde, hasta);
+    }
+
+    private <K> List<Cita> copiarIndice(Map<K, List<Cita>> indice, K clave) {
+        // Copia bajo la franja de la clave: la lista puede estar creciendo en otro hilo
+        ReentrantLock cerrojo = cerrojos.cerrojo(clave);
+        cerrojo.lock();
+        try {
+            List<Cita> citasClave = indice.get(clave);
+            if (citasClave != null) {
+                return Collections.unmodifiableList(new ArrayList<>(citasClave));
+            } else {
+                return Collections.emptyList();
+            }
+        } finally {
+            cerrojo.unlock();
         }
     }
 
     @Override
     public void guardarCitas(String filename) throws IOException {
-
+        long inicio = System.nanoTime();
+        // Se escribe cita por cita; el buffer vuelca al canal en bloques de tamaño fijo
+        try (FileChannel canal = FileChannel.open(Path.of(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             BufferedWriter writer = new BufferedWriter(
+                     Channels.newWriter(canal, StandardCharsets.UTF_8), TAMANIO_BUFFER_CSV)) {
+            CitaCsvCodec codec = new CitaCsvCodec();
+            for (Cita cita : citas) {
+                codec.escribir(cita, writer);
+            }
+        } finally {
+            metricas.registrarLatencia(Operacion.GUARDAR_CITAS, System.nanoTime() - inicio);
+        }
     }
 
     @Override
     public void cargarCitas(String filename, Map<String, Paciente> pacientes,
                             Map<String, Medico> medicos, Map<String, Sala> salas)
             throws IOException, ClassNotFoundException, CitaException {
+        long inicio = System.nanoTime();
+        // Lectura registro a registro: la memoria usada no depende del tamaño del archivo
+        try (FileChannel canal = FileChannel.open(Path.of(filename), StandardOpenOption.READ);
+             LectorRegistrosCsv lector = new LectorRegistrosCsv(
+                     Channels.newReader(canal, StandardCharsets.UTF_8), TAMANIO_BUFFER_CSV)) {
+            CitaCsvCodec codec = new CitaCsvCodec();
+            StringBuilder registro = new StringBuilder(256);
+            long numeroLinea = 1;
+            int lineas;
+            while ((lineas = lector.leer(registro)) > 0) {
+                // Los errores se informan con la última línea física del registro
+                long linea = numeroLinea + lineas - 1;
+                numeroLinea += lineas;
+                Cita cita;
+                try {
+                    cita = codec.decodificar(registro, pacientes, medicos, salas);
+                } catch (DateTimeException | IllegalArgumentException e) {
+                    throw new CitaException("Línea " + linea + " inválida: " + e.getMessage(), e);
+                }
+                incorporarCita(cita);
+            }
+        } finally {
+            metricas.registrarLatencia(Operacion.CARGAR_CITAS, System.nanoTime() - inicio);
+        }
+    }
+
+    public void cargarCitasEnParalelo(String filename, Map<String, Paciente> pacientes,
+                                      Map<String, Medico> medicos, Map<String, Sala> salas)
+            throws IOException, CitaException {
+        cargarCitasEnParalelo(filename, pacientes, medicos, salas, ForkJoinPool.commonPool());
+    }
 
+    /**
+     * Carga un archivo escrito por {@link #guardarCitas(String)} repartiendo la lectura entre los
+     * hilos del pool (ver {@link CargadorParaleloCitas}). Si alguna línea es inválida no se
+     * incorpora ninguna cita. Al terminar, las citas y los índices por paciente, médico y sala
+     * quedan en el mismo orden que con {@link #cargarCitas}.
+     */
+    public void cargarCitasEnParalelo(String filename, Map<String, Paciente> pacientes,
+                                      Map<String, Medico> medicos, Map<String, Sala> salas, ForkJoinPool pool)
+            throws IOException, CitaException {
+        cargarCitasEnParalelo(filename, pacientes, medicos, salas, pool, CargadorParaleloCitas.TAMANIO_BLOQUE_POR_DEFECTO);
+    }
+
+    void cargarCitasEnParalelo(String filename, Map<String, Paciente> pacientes, Map<String, Medico> medicos,
+                               Map<String, Sala> salas, ForkJoinPool pool, int tamanioBloque)
+            throws IOException, CitaException {
+        long inicio = System.nanoTime();
+        try {
+            List<CargadorParaleloCitas.Bloque> bloques = new CargadorParaleloCitas(Path.of(filename), pacientes,
+                    medicos, salas, pool, tamanioBloque).cargar();
+            incorporarBloques(bloques, pool);
+        } finally {
+            metricas.registrarLatencia(Operacion.CARGAR_CITAS, System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Combina los índices parciales de los bloques, en orden, y los aplica en paralelo con una
+     * tarea por franja de bloqueo: cada tarea toma su franja una sola vez y actualiza todos los
+     * pacientes, médicos y salas que caen en ella, sin competir con las demás.
+     */
+    private void incorporarBloques(List<CargadorParaleloCitas.Bloque> bloques, ForkJoinPool pool) throws IOException {
+        int cantidadFranjas = cerrojos.cantidad();
+        List<Map<Object, List<Cita>>> porFranja = new ArrayList<>(cantidadFranjas);
+        for (int i = 0; i < cantidadFranjas; i++) {
+            porFranja.add(new IdentityHashMap<>());
+        }
+        for (CargadorParaleloCitas.Bloque bloque : bloques) {
+            citas.addAll(bloque.citas);
+            for (Cita cita : bloque.citas) {
+                contadores.registrar(cita.getEstado());
+            }
+            repartir(bloque.porPaciente, porFranja);
+            repartir(bloque.porMedico, porFranja);
+            repartir(bloque.porSala, porFranja);
+        }
+
+        List<Callable<Void>> tareas = new ArrayList<>(cantidadFranjas);
+        for (int i = 0; i < cantidadFranjas; i++) {
+            int franja = i;
+            Map<Object, List<Cita>> recursos = porFranja.get(i);
+            if (!recursos.isEmpty()) {
+                tareas.add(() -> {
+                    incorporarFranja(franja, recursos);
+                    return null;
+                });
+            }
+        }
+        try {
+            for (Future<Void> tarea : pool.invokeAll(tareas)) {
+                tarea.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Carga de citas interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error al incorporar las citas cargadas", e.getCause());
+        }
+    }
+
+    private void repartir(Map<?, List<Cita>> parcial, List<Map<Object, List<Cita>>> porFranja) {
+        for (Map.Entry<?, List<Cita>> entrada : parcial.entrySet()) {
+            porFranja.get(cerrojos.franja(entrada.getKey()))
+                    .computeIfAbsent(entrada.getKey(), r -> new ArrayList<>())
+                    .addAll(entrada.getValue());
+        }
+    }
+
+    private void incorporarFranja(int franja, Map<Object, List<Cita>> recursos) {
+        ReentrantLock cerrojo = cerrojos.cerrojoDeFranja(franja);
+        cerrojo.lock();
+        try {
+            for (Map.Entry<Object, List<Cita>> entrada : recursos.entrySet()) {
+                Object recurso = entrada.getKey();
+                List<Cita> citasRecurso = entrada.getValue();
+                if (recurso instanceof Paciente paciente) {
+                    citasPorPaciente.computeIfAbsent(paciente, p -> new ArrayList<>()).addAll(citasRecurso);
+                    for (Cita cita : citasRecurso) {
+                        paciente.addCita(cita);
+                    }
+                } else if (recurso instanceof Medico medico) {
+                    citasPorMedico.computeIfAbsent(medico, m -> new ArrayList<>()).addAll(citasRecurso);
+                    AgendaRecurso agenda = agendaPorMedico.computeIfAbsent(medico, m -> new AgendaRecurso());
+                    for (Cita cita : citasRecurso) {
+                        reservarCargada(medico, agenda, cita);
+                        medico.addCita(cita);
+                    }
+                } else if (recurso instanceof Sala sala) {
+                    citasPorSala.computeIfAbsent(sala, s -> new ArrayList<>()).addAll(citasRecurso);
+                    AgendaRecurso agenda = agendaPorSala.computeIfAbsent(sala, s -> new AgendaRecurso());
+                    for (Cita cita : citasRecurso) {
+                        reservarCargada(sala, agenda, cita);
+                        sala.addCita(cita);
+                    }
+                }
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    // Mismo criterio que registrarCita: las canceladas no ocupan turno
+    private void reservarCargada(Object recurso, AgendaRecurso agenda, Cita cita) {
+        if (cita.getEstado() == EstadoCita.CANCELADA) {
+            return;
+        }
+        LocalDateTime fin = cita.getFechaHora().plus(duraciones.duracionPara(cita.getMedico(), cita.getSala()));
+        if (agenda.reservar(cita, fin) && ocupacion != null) {
+            ocupacion.reservar(recurso, cita.getFechaHora(), fin);
         }
     }
 
+    /**
+     * Guarda un snapshot binario de todas las citas; ver {@link SnapshotCitas} para el formato.
+     * Las entidades deben estar persistidas, porque los registros se indexan por id.
+     */
+    public void guardarSnapshot(String filename) throws IOException {
+        SnapshotCitas.escribir(new ArrayList<>(citas), Path.of(filename));
+    }
+
+    public void cargarSnapshot(String filename, Map<Long, Paciente> pacientes,
+                               Map<Long, Medico> medicos, Map<Long, Sala> salas)
+            throws IOException, CitaException {
+        SnapshotCitas.leer(Path.of(filename), pacientes, medicos, salas, this::incorporarCita);
+    }
+
+    // Todas las citas en el orden de alta, el mismo en que las escribe guardarCitas
+    List<Cita> citasEnOrden() {
+        return new ArrayList<>(citas);
+    }
+
+    /**
+     * Alta de una cita ya existente (p. ej. leída de un archivo) sin validar disponibilidad. Si
+     * otra cita del mismo médico o sala empieza a la misma hora, la que ya estaba conserva el turno.
+     */
+    void incorporarCita(Cita cita) {
+        LocalDateTime fin = cita.getFechaHora().plus(duraciones.duracionPara(cita.getMedico(), cita.getSala()));
+        int[] franjas = cerrojos.bloquear(cita.getPaciente(), cita.getMedico(), cita.getSala());
+        try {
+            registrarCita(cita, fin);
+        } finally {
+            cerrojos.liberar(franjas);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.servicio;
+
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.EstadoCita;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Fila plana de un listado de citas, armada directamente por la consulta sin materializar
+ * las entidades de paciente, médico ni sala.
+ */
+public record CitaResumen(Long id,
+                          LocalDateTime fechaHora,
+                          String nombrePaciente,
+                          String apellidoPaciente,
+                          String nombreMedico,
+                          String apellidoMedico,
+                          EspecialidadMedica especialidad,
+                          String numeroSala,
+                          BigDecimal costo,
+                          EstadoCita estado,
+                          String observaciones) {
+
+    public String getPacienteNombreCompleto() {
+        return nombrePaciente + " " + apellidoPaciente;
+    }
+
+    public String getMedicoNombreCompleto() {
+        return nombreMedico + " " + apellidoMedico;
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.servicio;
 
 import org.example.entidades.Cita;
+import org.example.entidades.EstadoCita;
 import org.example.entidades.Medico;
 import org.example.entidades.Paciente;
 import org.example.entidades.Sala;
@@ -8,6 +9,7 @@ import org.example.entidades.Sala;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -15,6 +17,8 @@ public interface CitaService {
     Cita programarCita(Paciente paciente, Medico medico, Sala sala,
                        LocalDateTime fechaHora, BigDecimal costo) throws CitaException;
 
+    void cambiarEstado(Cita cita, EstadoCita estado) throws CitaException;
+
     List<Cita> getCitasPorPaciente(Paciente paciente);
 
     List<Cita> getCitasPorMedico(Medico medico);
@@ -26,4 +30,22 @@ public interface CitaService {
     void cargarCitas(String filename, Map<String, Paciente> pacientes,
                      Map<String, Medico> medicos, Map<String, Sala> salas)
             throws IOException, ClassNotFoundException, CitaException;
+
+    /**
+     * Programa un lote de citas devolviendo un resultado por solicitud, en el mismo orden,
+     * en lugar de cortar con {@link CitaException} ante el primer rechazo.
+     */
+    default List<ResultadoCita> programarCitas(List<SolicitudCita> solicitudes) {
+        List<ResultadoCita> resultados = new ArrayList<>(solicitudes.size());
+        for (SolicitudCita solicitud : solicitudes) {
+            try {
+                resultados.add(ResultadoCita.aceptada(solicitud, programarCita(solicitud.paciente(),
+                        solicitud.medico(), solicitud.sala(), solicitud.fechaHora(), solicitud.costo())));
+            } catch (CitaException e) {
+                resultados.add(ResultadoCita.rechazada(solicitud,
+                        e.getMotivo() != null ? e.getMotivo() : MotivoRechazo.OTRO));
+            }
+        }
+        return resultados;
+    }
 }
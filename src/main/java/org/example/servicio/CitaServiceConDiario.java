@@ -0,0 +1,498 @@
+package org.example.servicio;
+
+import org.example.entidades.Cita;
+import org.example.entidades.EstadoCita;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Sala;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * {@link CitaManager} con diario de escritura anticipada: cada alta y cada cambio de estado se
+ * registra en el diario (ver {@link DiarioCitas}) y el método no vuelve hasta que el registro
+ * está en disco. Las escrituras de hilos concurrentes comparten el mismo {@code fsync}.
+ * <p>
+ * El directorio guarda una generación: {@code citas-N.csv}, un snapshot en el formato de
+ * {@link CitaManager#guardarCitas}, y {@code diario-N.log}, las operaciones posteriores. Cada
+ * cita se identifica en el diario por un ordinal: su posición en el snapshot o el que recibió al
+ * darse de alta. Al superar el umbral de registros se compacta en segundo plano: se escribe el
+ * snapshot N+1 con todas las citas, se crea un diario vacío y se borra la generación anterior.
+ * Al abrir se toma el snapshot más reciente y se aplica su diario.
+ * <p>
+ * Todas las altas y cambios de estado deben pasar por esta clase; lo que se haga directamente
+ * sobre el {@code CitaManager} sólo queda en disco tras la siguiente compactación.
+ */
+public class CitaServiceConDiario implements CitaService, AutoCloseable {
+    public static final Duration VENTANA_POR_DEFECTO = Duration.ZERO;
+    public static final long UMBRAL_COMPACTACION_POR_DEFECTO = 1_000_000;
+    private static final int MAXIMO_LOTE = 4096;
+    private static final int TAMANIO_BUFFER_CSV = 64 * 1024;
+    private static final String PREFIJO_SNAPSHOT = "citas-";
+    private static final String PREFIJO_DIARIO = "diario-";
+
+    private final CitaManager manager;
+    private final Path directorio;
+    private final DiarioCitas diario;
+    private final long umbralCompactacion;
+    // Cita no redefine equals, así que el mapa es por identidad
+    private final Map<Cita, Long> ordinales = new ConcurrentHashMap<>();
+    private final AtomicLong siguienteOrdinal = new AtomicLong();
+    private final AtomicLong registrosDesdeCompactacion = new AtomicLong();
+    private final AtomicBoolean compactando = new AtomicBoolean();
+    // Último error de una compactación en segundo plano; se informa en close()
+    private volatile Exception errorCompactacion;
+    // Lectura: registrar en memoria y encolar en el diario. Escritura: compactar
+    private final ReadWriteLock cerrojo = new ReentrantReadWriteLock();
+    private final ExecutorService compactador = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "compactacion-citas");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private long generacion;
+
+    private CitaServiceConDiario(CitaManager manager, Path directorio, DiarioCitas diario, long generacion,
+                                 long umbralCompactacion) {
+        this.manager = manager;
+        this.directorio = directorio;
+        this.diario = diario;
+        this.generacion = generacion;
+        this.umbralCompactacion = umbralCompactacion;
+    }
+
+    public static CitaServiceConDiario abrir(Path directorio, CitaManager manager, Map<String, Paciente> pacientes,
+                                             Map<String, Medico> medicos, Map<String, Sala> salas)
+            throws IOException, CitaException {
+        return abrir(directorio, manager, pacientes, medicos, salas, VENTANA_POR_DEFECTO,
+                UMBRAL_COMPACTACION_POR_DEFECTO);
+    }
+
+    /**
+     * Recupera en el {@code manager}, que debe estar vacío, el estado guardado en el directorio.
+     * La ventana es cuánto espera el escritor, tras el primer registro de un lote, a que lleguen
+     * otros antes del {@code fsync}; con cero junta sólo los que ya estaban encolados.
+     */
+    public static CitaServiceConDiario abrir(Path directorio, CitaManager manager, Map<String, Paciente> pacientes,
+                                             Map<String, Medico> medicos, Map<String, Sala> salas,
+                                             Duration ventana, long umbralCompactacion)
+            throws IOException, CitaException {
+        if (!manager.citasEnOrden().isEmpty()) {
+            throw new IllegalArgumentException("El CitaManager debe estar vacío para recuperar el diario");
+        }
+        if (umbralCompactacion <= 0) {
+            throw new IllegalArgumentException("El umbral de compactación debe ser positivo");
+        }
+        Files.createDirectories(directorio);
+        long generacion = ultimaGeneracion(directorio);
+        Path snapshot = directorio.resolve(PREFIJO_SNAPSHOT + generacion + ".csv");
+        if (Files.exists(snapshot)) {
+            manager.cargarCitasEnParalelo(snapshot.toString(), pacientes, medicos, salas);
+        }
+
+        Map<Long, Cita> porOrdinal = new HashMap<>();
+        List<Cita> cargadas = manager.citasEnOrden();
+        for (int i = 0; i < cargadas.size(); i++) {
+            porOrdinal.put((long) i, cargadas.get(i));
+        }
+        CitaCsvCodec codec = new CitaCsvCodec();
+        long[] registros = new long[1];
+        DiarioCitas diario = DiarioCitas.abrir(directorio.resolve(PREFIJO_DIARIO + generacion + ".log"), ventana,
+                MAXIMO_LOTE, registro -> {
+                    aplicar(registro, manager, codec, porOrdinal, pacientes, medicos, salas);
+                    registros[0]++;
+                });
+
+        CitaServiceConDiario servicio = new CitaServiceConDiario(manager, directorio, diario, generacion,
+                umbralCompactacion);
+        long maximo = -1;
+        for (Map.Entry<Long, Cita> entrada : porOrdinal.entrySet()) {
+            servicio.ordinales.put(entrada.getValue(), entrada.getKey());
+            maximo = Math.max(maximo, entrada.getKey());
+        }
+        servicio.siguienteOrdinal.set(maximo + 1);
+        servicio.registrosDesdeCompactacion.set(registros[0]);
+        borrarGeneracionesAnteriores(directorio, generacion);
+        return servicio;
+    }
+
+    public CitaManager getManager() {
+        return manager;
+    }
+
+    // Promedio de registros por fsync desde que se abrió el diario
+    public double getRegistrosPorLote() {
+        long lotes = diario.getLotes();
+        return lotes == 0 ? 0 : (double) diario.getRegistros() / lotes;
+    }
+
+    /**
+     * Si el alta no llega al diario, la cita se cancela en memoria para liberar el turno y se
+     * informa el error como {@link CitaException}. Si el diario la rechaza al encolarla (está
+     * cerrado o el registro supera 1 MB) también se cancela, y se relanza esa excepción.
+     */
+    @Override
+    public Cita programarCita(Paciente paciente, Medico medico, Sala sala,
+                              LocalDateTime fechaHora, BigDecimal costo) throws CitaException {
+        Cita cita;
+        CompletableFuture<Void> confirmacion;
+        cerrojo.readLock().lock();
+        try {
+            cita = manager.programarCita(paciente, medico, sala, fechaHora, costo);
+            try {
+                confirmacion = registrarAlta(cita);
+            } catch (IllegalStateException | IllegalArgumentException e) {
+                cancelar(cita);
+                throw e;
+            }
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+        try {
+            DiarioCitas.esperar(confirmacion);
+        } catch (IOException e) {
+            cancelar(cita);
+            throw new CitaException("No se pudo registrar la cita en el diario: " + e.getMessage(), e);
+        }
+        contarRegistros(1);
+        return cita;
+    }
+
+    /**
+     * Las altas del lote se encolan juntas y comparten los {@code fsync}, pero cada una se
+     * confirma con su propio registro: las que no llegan al diario se cancelan en memoria y
+     * vuelven rechazadas con {@link MotivoRechazo#OTRO}, sin afectar a las demás. Se registran en
+     * el orden de las solicitudes, así que al recuperar el directorio las citas del lote quedan en
+     * ese orden y no en el que las agrupó el {@code CitaManager}.
+     * <p>
+     * Si el diario rechaza un alta al encolarla (está cerrado o el registro supera 1 MB), esa y
+     * las siguientes del lote se cancelan sin encolar; se esperan las ya encoladas, que quedan
+     * programadas si llegan al disco, y se relanza la excepción.
+     */
+    @Override
+    public List<ResultadoCita> programarCitas(List<SolicitudCita> solicitudes) {
+        List<ResultadoCita> resultados;
+        List<CompletableFuture<Void>> confirmaciones;
+        RuntimeException rechazo = null;
+        cerrojo.readLock().lock();
+        try {
+            resultados = new ArrayList<>(manager.programarCitas(solicitudes));
+            confirmaciones = new ArrayList<>(resultados.size());
+            for (ResultadoCita resultado : resultados) {
+                CompletableFuture<Void> confirmacion = null;
+                if (resultado.isAceptada() && rechazo != null) {
+                    cancelar(resultado.cita());
+                } else if (resultado.isAceptada()) {
+                    try {
+                        confirmacion = registrarAlta(resultado.cita());
+                    } catch (IllegalStateException | IllegalArgumentException e) {
+                        cancelar(resultado.cita());
+                        rechazo = e;
+                    }
+                }
+                confirmaciones.add(confirmacion);
+            }
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+        int altas = 0;
+        for (int i = 0; i < resultados.size(); i++) {
+            CompletableFuture<Void> confirmacion = confirmaciones.get(i);
+            if (confirmacion == null) {
+                continue;
+            }
+            try {
+                DiarioCitas.esperar(confirmacion);
+                altas++;
+            } catch (IOException e) {
+                ResultadoCita resultado = resultados.get(i);
+                cancelar(resultado.cita());
+                resultados.set(i, ResultadoCita.rechazada(resultado.solicitud(), MotivoRechazo.OTRO));
+            }
+        }
+        contarRegistros(altas);
+        if (rechazo != null) {
+            throw rechazo;
+        }
+        return resultados;
+    }
+
+    /**
+     * Cambia el estado en memoria y lo encola en el diario sin soltar la cita, para que dos
+     * cambios concurrentes sobre la misma cita queden en el diario en el orden en que se
+     * aplicaron. Si el registro falla el cambio ya está hecho en memoria y se informa el error.
+     */
+    @Override
+    public void cambiarEstado(Cita cita, EstadoCita estado) throws CitaException {
+        CompletableFuture<Void> confirmacion;
+        cerrojo.readLock().lock();
+        try {
+            synchronized (cita) {
+                Long ordinal = ordinales.get(cita);
+                if (ordinal == null) {
+                    throw new CitaException("La cita no está registrada en el diario");
+                }
+                manager.cambiarEstado(cita, estado);
+                confirmacion = diario.agregar("E," + ordinal + "," + estado.name());
+            }
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+        try {
+            DiarioCitas.esperar(confirmacion);
+        } catch (IOException e) {
+            throw new CitaException("No se pudo registrar el cambio de estado en el diario: " + e.getMessage(), e);
+        }
+        contarRegistros(1);
+    }
+
+    @Override
+    public List<Cita> getCitasPorPaciente(Paciente paciente) {
+        return manager.getCitasPorPaciente(paciente);
+    }
+
+    @Override
+    public List<Cita> getCitasPorMedico(Medico medico) {
+        return manager.getCitasPorMedico(medico);
+    }
+
+    @Override
+    public List<Cita> getCitasPorSala(Sala sala) {
+        return manager.getCitasPorSala(sala);
+    }
+
+    @Override
+    public void guardarCitas(String filename) throws IOException {
+        manager.guardarCitas(filename);
+    }
+
+    // Las citas cargadas quedan en disco con una compactación inmediata
+    @Override
+    public void cargarCitas(String filename, Map<String, Paciente> pacientes,
+                            Map<String, Medico> medicos, Map<String, Sala> salas)
+            throws IOException, ClassNotFoundException, CitaException {
+        cerrojo.writeLock().lock();
+        try {
+            manager.cargarCitas(filename, pacientes, medicos, salas);
+            compactar();
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Escribe un snapshot con todas las citas y empieza un diario vacío. Las altas y cambios de
+     * estado esperan mientras tanto; las lecturas no. Si termina bien descarta el error de una
+     * compactación en segundo plano anterior, que ya no aplica.
+     */
+    public void compactar() throws IOException {
+        cerrojo.writeLock().lock();
+        try {
+            diario.esperarPendientes();
+            List<Cita> todas = manager.citasEnOrden();
+            long nueva = generacion + 1;
+            Path snapshot = directorio.resolve(PREFIJO_SNAPSHOT + nueva + ".csv");
+            Path temporal = directorio.resolve(PREFIJO_SNAPSHOT + nueva + ".csv.tmp");
+            escribirSnapshot(todas, temporal);
+            Path nuevoDiario = directorio.resolve(PREFIJO_DIARIO + nueva + ".log");
+            Files.deleteIfExists(nuevoDiario);
+            FileChannel canal = DiarioCitas.crear(nuevoDiario);
+            try {
+                // Desde acá la generación que se recupera es la nueva
+                Files.move(temporal, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                canal.close();
+                Files.deleteIfExists(nuevoDiario);
+                throw e;
+            }
+            diario.cambiarArchivo(canal);
+
+            ordinales.clear();
+            for (int i = 0; i < todas.size(); i++) {
+                ordinales.put(todas.get(i), (long) i);
+            }
+            siguienteOrdinal.set(todas.size());
+            registrosDesdeCompactacion.set(0);
+            generacion = nueva;
+            errorCompactacion = null;
+            borrarGeneracionesAnteriores(directorio, nueva);
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Cierra el diario. Si la última compactación en segundo plano falló y no hubo otra que la
+     * reemplace, lo informa después de cerrar; el diario sigue siendo válido igual.
+     */
+    @Override
+    public void close() throws IOException {
+        compactador.shutdown();
+        try {
+            compactador.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        diario.close();
+        Exception error = errorCompactacion;
+        if (error != null) {
+            throw new IOException("No se pudo compactar el diario de citas: " + error.getMessage(), error);
+        }
+    }
+
+    // Debe llamarse con el cerrojo de lectura tomado
+    private CompletableFuture<Void> registrarAlta(Cita cita) {
+        long ordinal = siguienteOrdinal.getAndIncrement();
+        StringBuilder registro = new StringBuilder(160).append("C,").append(ordinal).append(',');
+        CitaCsvCodec.codificar(cita, registro);
+        CompletableFuture<Void> confirmacion = diario.agregar(registro.toString());
+        // Recién ahora, para que ningún cambio de estado se encole antes que el alta
+        ordinales.put(cita, ordinal);
+        return confirmacion;
+    }
+
+    // Libera el turno de una cita cuya alta no llegó al diario
+    private void cancelar(Cita cita) {
+        try {
+            manager.cambiarEstado(cita, EstadoCita.CANCELADA);
+        } catch (CitaException e) {
+            // Ya estaba cancelada
+        }
+    }
+
+    private void contarRegistros(int cantidad) {
+        if (registrosDesdeCompactacion.addAndGet(cantidad) < umbralCompactacion
+                || !compactando.compareAndSet(false, true)) {
+            return;
+        }
+        compactador.execute(() -> {
+            try {
+                compactar();
+            } catch (IOException | RuntimeException e) {
+                // Se reintenta con el próximo registro; el diario sigue siendo válido
+                errorCompactacion = e;
+            } finally {
+                compactando.set(false);
+            }
+        });
+    }
+
+    private static void aplicar(String registro, CitaManager manager, CitaCsvCodec codec, Map<Long, Cita> porOrdinal,
+                                Map<String, Paciente> pacientes, Map<String, Medico> medicos,
+                                Map<String, Sala> salas) throws CitaException {
+        int coma = registro.indexOf(',', 2);
+        if (registro.length() < 2 || registro.charAt(1) != ',' || coma < 0) {
+            throw new CitaException("Registro de diario inválido: " + registro);
+        }
+        long ordinal;
+        try {
+            ordinal = Long.parseLong(registro, 2, coma, 10);
+        } catch (NumberFormatException e) {
+            throw new CitaException("Ordinal inválido en el diario: " + registro, e);
+        }
+        switch (registro.charAt(0)) {
+            case 'C' -> {
+                Cita cita;
+                try {
+                    cita = codec.decodificar(registro.substring(coma + 1), pacientes, medicos, salas);
+                } catch (RuntimeException e) {
+                    throw new CitaException("Alta inválida en el diario: " + e.getMessage(), e);
+                }
+                manager.incorporarCita(cita);
+                porOrdinal.put(ordinal, cita);
+            }
+            case 'E' -> {
+                Cita cita = porOrdinal.get(ordinal);
+                if (cita == null) {
+                    throw new CitaException("El diario cambia el estado de una cita inexistente: " + ordinal);
+                }
+                EstadoCita estado;
+                try {
+                    estado = EstadoCita.valueOf(registro.substring(coma + 1));
+                } catch (IllegalArgumentException e) {
+                    throw new CitaException("Estado inválido en el diario: " + registro, e);
+                }
+                manager.cambiarEstado(cita, estado);
+            }
+            default -> throw new CitaException("Registro de diario inválido: " + registro);
+        }
+    }
+
+    private static void escribirSnapshot(List<Cita> citas, Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            BufferedWriter writer = new BufferedWriter(Channels.newWriter(canal, StandardCharsets.UTF_8),
+                    TAMANIO_BUFFER_CSV);
+            CitaCsvCodec codec = new CitaCsvCodec();
+            for (Cita cita : citas) {
+                codec.escribir(cita, writer);
+            }
+            writer.flush();
+            canal.force(true);
+        }
+    }
+
+    // Generación del snapshot más reciente, o 0 si no hay ninguno
+    private static long ultimaGeneracion(Path directorio) throws IOException {
+        long ultima = 0;
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio, PREFIJO_SNAPSHOT + "*.csv")) {
+            for (Path archivo : archivos) {
+                long numero = generacionDe(archivo, PREFIJO_SNAPSHOT, ".csv");
+                ultima = Math.max(ultima, numero);
+            }
+        }
+        return ultima;
+    }
+
+    private static void borrarGeneracionesAnteriores(Path directorio, long actual) throws IOException {
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio)) {
+            for (Path archivo : archivos) {
+                String nombre = archivo.getFileName().toString();
+                long numero = nombre.endsWith(".tmp") ? -1
+                        : Math.max(generacionDe(archivo, PREFIJO_SNAPSHOT, ".csv"),
+                        generacionDe(archivo, PREFIJO_DIARIO, ".log"));
+                if (nombre.endsWith(".tmp") || (numero >= 0 && numero < actual)) {
+                    Files.deleteIfExists(archivo);
+                }
+            }
+        }
+    }
+
+    // Número de generación en el nombre del archivo, o -1 si no sigue el patrón
+    private static long generacionDe(Path archivo, String prefijo, String sufijo) {
+        String nombre = archivo.getFileName().toString();
+        if (!nombre.startsWith(prefijo) || !nombre.endsWith(sufijo)
+                || nombre.length() == prefijo.length() + sufijo.length()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(nombre, prefijo.length(), nombre.length() - sufijo.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package org.example.servicio;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.LockModeType;
+import org.example.entidades.Cita;
+import org.example.entidades.EstadoCita;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Sala;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Implementación de {@link CitaService} sobre la base de datos.
+ * <p>
+ * Los conflictos se resuelven con consultas por rango sobre los índices
+ * {@code citas(medico_id, fecha_hora)} y {@code citas(sala_id, fecha_hora)}, acotadas por la
+ * duración máxima configurada. Las reservas concurrentes se serializan con bloqueo pesimista de
+ * las filas de médicos y salas involucrados, tomadas siempre en orden de id. Las altas se envían
+ * en lotes JDBC según {@code hibernate.jdbc.batch_size}.
+ */
+public class CitaServiceJpa implements CitaService {
+    private static final int TAMANIO_LOTE_CARGA = 1000;
+
+    private final EntityManagerFactory emf;
+    private final DuracionCitas duraciones;
+    private final MetricasCitas metricas = new MetricasCitas();
+    private final ContadoresCitas contadores = new ContadoresCitas();
+
+    public CitaServiceJpa(EntityManagerFactory emf) {
+        this(emf, DuracionCitas.porDefecto());
+    }
+
+    public CitaServiceJpa(EntityManagerFactory emf, DuracionCitas duraciones) {
+        this.emf = Objects.requireNonNull(emf, "El EntityManagerFactory no puede ser nulo");
+        this.duraciones = Objects.requireNonNull(duraciones, "Las duraciones no pueden ser nulas");
+    }
+
+    public MetricasCitas getMetricas() {
+        return metricas;
+    }
+
+    /**
+     * Citas por estado según las operaciones hechas con este servicio. Parte de cero: sobre una
+     * base con datos previos debe reiniciarse con {@link EstadisticasService#contarCitasPorEstado()}.
+     */
+    public ContadoresCitas getContadores() {
+        return contadores;
+    }
+
+    @Override
+    public Cita programarCita(Paciente paciente, Medico medico, Sala sala,
+                              LocalDateTime fechaHora, BigDecimal costo) throws CitaException {
+        ResultadoCita resultado = programarCitas(
+                List.of(new SolicitudCita(paciente, medico, sala, fechaHora, costo))).get(0);
+        if (!resultado.isAceptada()) {
+            throw new CitaException(resultado.motivo());
+        }
+        return resultado.cita();
+    }
+
+    /**
+     * Programa el lote en una única transacción: bloquea médicos y salas, trae una vez las
+     * citas existentes en el rango de fechas del lote y recorre las solicitudes por fecha y hora
+     * con el mismo criterio que {@link CitaManager#programarCitas(List)}.
+     */
+    @Override
+    public List<ResultadoCita> programarCitas(List<SolicitudCita> solicitudes) {
+        long inicio = System.nanoTime();
+        try {
+            return programarEnTransaccion(solicitudes);
+        } finally {
+            metricas.registrarLatencia(MetricasCitas.Operacion.PROGRAMAR_CITAS, System.nanoTime() - inicio);
+        }
+    }
+
+    private List<ResultadoCita> programarEnTransaccion(List<SolicitudCita> solicitudes) {
+        int cantidad = solicitudes.size();
+        ResultadoCita[] resultados = new ResultadoCita[cantidad];
+        LocalDateTime ahora = LocalDateTime.now();
+
+        List<Integer> validas = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            SolicitudCita solicitud = solicitudes.get(i);
+            MotivoRechazo motivo = validarCita(solicitud, ahora);
+            if (motivo != null) {
+                metricas.registrarRechazo(motivo);
+                resultados[i] = ResultadoCita.rechazada(solicitud, motivo);
+            } else {
+                validas.add(i);
+            }
+        }
+        if (validas.isEmpty()) {
+            return Arrays.asList(resultados);
+        }
+        validas.sort(Comparator.comparing((Integer i) -> solicitudes.get(i).fechaHora())
+                .thenComparingInt(i -> i));
+
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+
+            Set<Long> idsPacientes = new HashSet<>();
+            Set<Long> idsMedicos = new TreeSet<>();
+            Set<Long> idsSalas = new TreeSet<>();
+            for (int i : validas) {
+                idsPacientes.add(idDe(solicitudes.get(i).paciente().getId(), "paciente"));
+                idsMedicos.add(idDe(solicitudes.get(i).medico().getId(), "médico"));
+                idsSalas.add(idDe(solicitudes.get(i).sala().getId(), "sala"));
+            }
+
+            // Bloqueo en orden de id: dos lotes que comparten recursos no pueden cruzarse
+            Map<Long, Medico> medicos = new HashMap<>();
+            for (Medico medico : em.createQuery(
+                            "SELECT m FROM Medico m WHERE m.id IN :ids ORDER BY m.id", Medico.class)
+                    .setParameter("ids", idsMedicos)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .getResultList()) {
+                medicos.put(medico.getId(), medico);
+            }
+            Map<Long, Sala> salas = new HashMap<>();
+            for (Sala sala : em.createQuery(
+                            "SELECT s FROM Sala s WHERE s.id IN :ids ORDER BY s.id", Sala.class)
+                    .setParameter("ids", idsSalas)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .getResultList()) {
+                salas.put(sala.getId(), sala);
+            }
+
+            // Cargados, no como referencia: la cita devuelta los expone después de cerrar el EntityManager
+            Map<Long, Paciente> pacientes = new HashMap<>();
+            for (Paciente paciente : em.createQuery(
+                            "SELECT p FROM Paciente p LEFT JOIN FETCH p.historiaClinica WHERE p.id IN :ids",
+                            Paciente.class)
+                    .setParameter("ids", idsPacientes)
+                    .getResultList()) {
+                pacientes.put(paciente.getId(), paciente);
+            }
+
+            // Una sola consulta por rango para cada tipo de recurso
+            LocalDateTime desde = solicitudes.get(validas.get(0)).fechaHora().minus(duraciones.getMaxima());
+            LocalDateTime hasta = solicitudes.get(validas.get(validas.size() - 1)).fechaHora()
+                    .plus(duraciones.getMaxima());
+            Map<Long, AgendaRecurso> agendaPorMedico = cargarAgendas(em, true, idsMedicos, desde, hasta);
+            Map<Long, AgendaRecurso> agendaPorSala = cargarAgendas(em, false, idsSalas, desde, hasta);
+
+            for (int i : validas) {
+                SolicitudCita solicitud = solicitudes.get(i);
+                Paciente paciente = pacientes.get(solicitud.paciente().getId());
+                Medico medico = medicos.get(solicitud.medico().getId());
+                Sala sala = salas.get(solicitud.sala().getId());
+                if (paciente == null || medico == null || sala == null) {
+                    throw new IllegalArgumentException("Paciente, médico o sala inexistente en la base de datos");
+                }
+                LocalDateTime inicio = solicitud.fechaHora();
+                LocalDateTime fin = inicio.plus(duraciones.duracionPara(medico, sala));
+                AgendaRecurso agendaMedico = agendaPorMedico.computeIfAbsent(medico.getId(), id -> new AgendaRecurso());
+                AgendaRecurso agendaSala = agendaPorSala.computeIfAbsent(sala.getId(), id -> new AgendaRecurso());
+
+                MotivoRechazo motivo = null;
+                if (!agendaMedico.estaLibre(inicio, fin)) {
+                    motivo = MotivoRechazo.MEDICO_OCUPADO;
+                } else if (!agendaSala.estaLibre(inicio, fin)) {
+                    motivo = MotivoRechazo.SALA_OCUPADA;
+                } else if (!medico.getEspecialidad().equals(sala.getDepartamento().getEspecialidad())) {
+                    motivo = MotivoRechazo.ESPECIALIDAD_INCOMPATIBLE;
+                }
+                if (motivo != null) {
+                    metricas.registrarRechazo(motivo);
+                    resultados[i] = ResultadoCita.rechazada(solicitud, motivo);
+                    continue;
+                }
+
+                Cita cita = Cita.builder()
+                        .paciente(paciente)
+                        .medico(medico)
+                        .sala(sala)
+                        .fechaHora(inicio)
+                        .costo(solicitud.costo())
+                        .build();
+                em.persist(cita);
+                agendaMedico.reservar(cita, fin);
+                agendaSala.reservar(cita, fin);
+                resultados[i] = ResultadoCita.aceptada(solicitud, cita);
+            }
+
+            tx.commit();
+            for (ResultadoCita resultado : resultados) {
+                if (resultado.isAceptada()) {
+                    contadores.registrar(resultado.cita().getEstado());
+                }
+            }
+            return Arrays.asList(resultados);
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public void cambiarEstado(Cita cita, EstadoCita estado) throws CitaException {
+        Objects.requireNonNull(estado, "El estado no puede ser nulo");
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            Cita gestionada = em.find(Cita.class, idDe(cita.getId(), "cita"), LockModeType.PESSIMISTIC_WRITE);
+            if (gestionada == null) {
+                throw new CitaException("Cita no encontrada: " + cita.getId());
+            }
+            if (gestionada.getEstado() == EstadoCita.CANCELADA && estado != EstadoCita.CANCELADA) {
+                throw new CitaException("Una cita cancelada no puede cambiar de estado.");
+            }
+            EstadoCita anterior = gestionada.getEstado();
+            gestionada.setEstado(estado);
+            tx.commit();
+            cita.setEstado(estado);
+            contadores.cambiar(anterior, estado);
+        } catch (CitaException | RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    private Map<Long, AgendaRecurso> cargarAgendas(EntityManager em, boolean porMedico, Set<Long> ids,
+                                                   LocalDateTime desde, LocalDateTime hasta) {
+        List<Cita> existentes = em.createQuery(
+                        "SELECT c FROM Cita c JOIN FETCH c.medico JOIN FETCH c.sala"
+                                + " WHERE " + (porMedico ? "c.medico.id" : "c.sala.id") + " IN :ids"
+                                + " AND c.fechaHora > :desde AND c.fechaHora < :hasta"
+                                + " AND c.estado <> :cancelada", Cita.class)
+                .setParameter("ids", ids)
+                .setParameter("desde", desde)
+                .setParameter("hasta", hasta)
+                .setParameter("cancelada", EstadoCita.CANCELADA)
+                .getResultList();
+
+        Map<Long, AgendaRecurso> agendas = new HashMap<>();
+        for (Cita cita : existentes) {
+            Long id = porMedico ? cita.getMedico().getId() : cita.getSala().getId();
+            LocalDateTime fin = cita.getFechaHora().plus(duraciones.duracionPara(cita.getMedico(), cita.getSala()));
+            agendas.computeIfAbsent(id, clave -> new AgendaRecurso()).reservar(cita, fin);
+        }
+        return agendas;
+    }
+
+    private MotivoRechazo validarCita(SolicitudCita solicitud, LocalDateTime ahora) {
+        if (solicitud.fechaHora().isBefore(ahora)) {
+            return MotivoRechazo.FECHA_PASADA;
+        }
+        if (solicitud.costo().compareTo(BigDecimal.ZERO) <= 0) {
+            return MotivoRechazo.COSTO_INVALIDO;
+        }
+        return null;
+    }
+
+    @Override
+    public List<Cita> getCitasPorPaciente(Paciente paciente) {
+        return consultarCitas("c.paciente.id", idDe(paciente.getId(), "paciente"));
+    }
+
+    @Override
+    public List<Cita> getCitasPorMedico(Medico medico) {
+        return consultarCitas("c.medico.id", idDe(medico.getId(), "médico"));
+    }
+
+    @Override
+    public List<Cita> getCitasPorSala(Sala sala) {
+        return consultarCitas("c.sala.id", idDe(sala.getId(), "sala"));
+    }
+
+    private List<Cita> consultarCitas(String recurso, Long id) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery(
+                            "SELECT c FROM Cita c JOIN FETCH c.paciente JOIN FETCH c.medico JOIN FETCH c.sala"
+                                    + " WHERE " + recurso + " = :id ORDER BY c.fechaHora", Cita.class)
+                    .setParameter("id", id)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public void guardarCitas(String filename) throws IOException {
+        EntityManager em = emf.createEntityManager();
+        try (BufferedWriter writer = Files.newBufferedWriter(Path.of(filename), StandardCharsets.UTF_8);
+             Stream<Cita> citas = em.createQuery(
+                             "SELECT c FROM Cita c JOIN FETCH c.paciente JOIN FETCH c.medico JOIN FETCH c.sala"
+                                     + " ORDER BY c.id", Cita.class)
+                     .getResultStream()) {
+            CitaCsvCodec codec = new CitaCsvCodec();
+            for (Cita cita : (Iterable<Cita>) citas::iterator) {
+                codec.escribir(cita, writer);
+                // Las citas ya escritas no deben acumularse en el contexto de persistencia
+                em.detach(cita);
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public void cargarCitas(String filename, Map<String, Paciente> pacientes,
+                            Map<String, Medico> medicos, Map<String, Sala> salas)
+            throws IOException, ClassNotFoundException, CitaException {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try (LectorRegistrosCsv lector = new LectorRegistrosCsv(
+                Files.newBufferedReader(Path.of(filename), StandardCharsets.UTF_8))) {
+            tx.begin();
+            CitaCsvCodec codec = new CitaCsvCodec();
+            StringBuilder registro = new StringBuilder(256);
+            long numeroLinea = 1;
+            int lineas;
+            int pendientes = 0;
+            while ((lineas = lector.leer(registro)) > 0) {
+                // Los errores se informan con la última línea física del registro
+                long linea = numeroLinea + lineas - 1;
+                numeroLinea += lineas;
+                Cita leida;
+                try {
+                    leida = codec.decodificar(registro, pacientes, medicos, salas);
+                } catch (DateTimeException | IllegalArgumentException e) {
+                    throw new CitaException("Línea " + linea + " inválida: " + e.getMessage(), e);
+                }
+                // Referencias por id: las entidades de los mapas pueden no pertenecer a este contexto
+                em.persist(Cita.builder()
+                        .paciente(em.getReference(Paciente.class, idDe(leida.getPaciente().getId(), "paciente")))
+                        .medico(em.getReference(Medico.class, idDe(leida.getMedico().getId(), "médico")))
+                        .sala(em.getReference(Sala.class, idDe(leida.getSala().getId(), "sala")))
+                        .fechaHora(leida.getFechaHora())
+                        .costo(leida.getCosto())
+                        .estado(leida.getEstado())
+                        .observaciones(leida.getObservaciones())
+                        .build());
+                if (++pendientes == TAMANIO_LOTE_CARGA) {
+                    em.flush();
+                    em.clear();
+                    pendientes = 0;
+                }
+            }
+            tx.commit();
+        } catch (IOException | CitaException | RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    private static Long idDe(Long id, String entidad) {
+        if (id == null) {
+            throw new IllegalArgumentException("La entidad " + entidad + " debe estar persistida");
+        }
+        return id;
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.servicio;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Sala;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Consultas de sólo lectura para listados de citas.
+ * <p>
+ * Cada método resuelve el listado completo en una única sentencia: los datos de paciente,
+ * médico y sala se proyectan con JOIN en un {@link CitaResumen}, sin navegar asociaciones LAZY
+ * ni cargar entidades en el contexto de persistencia, por lo que la cantidad de consultas no
+ * depende de la cantidad de citas.
+ */
+public class ConsultaCitasService {
+    private static final String SELECT_RESUMEN =
+            "SELECT new org.example.servicio.CitaResumen(c.id, c.fechaHora, p.nombre, p.apellido,"
+                    + " m.nombre, m.apellido, m.especialidad, s.numero, c.costo, c.estado, c.observaciones)"
+                    + " FROM Cita c JOIN c.paciente p JOIN c.medico m JOIN c.sala s";
+
+    private final EntityManagerFactory emf;
+
+    public ConsultaCitasService(EntityManagerFactory emf) {
+        this.emf = Objects.requireNonNull(emf, "El EntityManagerFactory no puede ser nulo");
+    }
+
+    public List<CitaResumen> listarCitas() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery(SELECT_RESUMEN + " ORDER BY c.fechaHora, c.id", CitaResumen.class)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    public List<CitaResumen> listarCitasEntre(LocalDateTime desde, LocalDateTime hasta) {
+        Objects.requireNonNull(desde, "La fecha desde no puede ser nula");
+        Objects.requireNonNull(hasta, "La fecha hasta no puede ser nula");
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery(SELECT_RESUMEN
+                            + " WHERE c.fechaHora >= :desde AND c.fechaHora < :hasta"
+                            + " ORDER BY c.fechaHora, c.id", CitaResumen.class)
+                    .setParameter("desde", desde)
+                    .setParameter("hasta", hasta)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    public List<CitaResumen> listarCitasPorMedico(Medico medico) {
+        return listarPor("m.id", idDe(medico.getId(), "médico"), null, null, 0, Integer.MAX_VALUE);
+    }
+
+    public List<CitaResumen> listarCitasPorPaciente(Paciente paciente) {
+        return listarPor("p.id", idDe(paciente.getId(), "paciente"), null, null, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Página {@code pagina} (desde 0) de las citas del médico en [desde, hasta), en orden
+     * cronológico. Sólo se leen las filas de la página, a través del índice por médico y fecha.
+     */
+    public List<CitaResumen> listarCitasPorMedico(Medico medico, LocalDateTime desde, LocalDateTime hasta,
+                                                  int pagina, int tamanio) {
+        return listarPor("m.id", idDe(medico.getId(), "médico"), desde, hasta, pagina, tamanio);
+    }
+
+    public List<CitaResumen> listarCitasPorSala(Sala sala, LocalDateTime desde, LocalDateTime hasta,
+                                                int pagina, int tamanio) {
+        return listarPor("s.id", idDe(sala.getId(), "sala"), desde, hasta, pagina, tamanio);
+    }
+
+    public List<CitaResumen> listarCitasPorPaciente(Paciente paciente, LocalDateTime desde, LocalDateTime hasta,
+                                                    int pagina, int tamanio) {
+        return listarPor("p.id", idDe(paciente.getId(), "paciente"), desde, hasta, pagina, tamanio);
+    }
+
+    // Un COUNT sobre el índice del recurso, sin cargar sus citas
+    public long contarCitasPorMedico(Medico medico) {
+        return contarCitasPorMedico(medico, null, null);
+    }
+
+    public long contarCitasPorSala(Sala sala) {
+        return contarCitasPorSala(sala, null, null);
+    }
+
+    public long contarCitasPorPaciente(Paciente paciente) {
+        return contarCitasPorPaciente(paciente, null, null);
+    }
+
+    public long contarCitasPorMedico(Medico medico, LocalDateTime desde, LocalDateTime hasta) {
+        return contarPor("c.medico.id", idDe(medico.getId(), "médico"), desde, hasta);
+    }
+
+    public long contarCitasPorSala(Sala sala, LocalDateTime desde, LocalDateTime hasta) {
+        return contarPor("c.sala.id", idDe(sala.getId(), "sala"), desde, hasta);
+    }
+
+    public long contarCitasPorPaciente(Paciente paciente, LocalDateTime desde, LocalDateTime hasta) {
+        return contarPor("c.paciente.id", idDe(paciente.getId(), "paciente"), desde, hasta);
+    }
+
+    private List<CitaResumen> listarPor(String recurso, Long id, LocalDateTime desde, LocalDateTime hasta,
+                                        int pagina, int tamanio) {
+        if (pagina < 0 || tamanio <= 0) {
+            throw new IllegalArgumentException("Página o tamaño de página inválidos");
+        }
+        EntityManager em = emf.createEntityManager();
+        try {
+            TypedQuery<CitaResumen> query = em.createQuery(SELECT_RESUMEN + " WHERE " + recurso + " = :id"
+                            + filtroRango(desde, hasta) + " ORDER BY c.fechaHora, c.id", CitaResumen.class)
+                    .setParameter("id", id);
+            fijarRango(query, desde, hasta);
+            if (tamanio != Integer.MAX_VALUE) {
+                query.setFirstResult(Math.multiplyExact(pagina, tamanio)).setMaxResults(tamanio);
+            }
+            return query.getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    private long contarPor(String recurso, Long id, LocalDateTime desde, LocalDateTime hasta) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            TypedQuery<Long> query = em.createQuery("SELECT COUNT(c) FROM Cita c WHERE " + recurso + " = :id"
+                            + filtroRango(desde, hasta), Long.class)
+                    .setParameter("id", id);
+            fijarRango(query, desde, hasta);
+            return query.getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+
+    // Los extremos nulos dejan el rango abierto de ese lado
+    private static String filtroRango(LocalDateTime desde, LocalDateTime hasta) {
+        return (desde != null ? " AND c.fechaHora >= :desde" : "") + (hasta != null ? " AND c.fechaHora < :hasta" : "");
+    }
+
+    private static void fijarRango(TypedQuery<?> query, LocalDateTime desde, LocalDateTime hasta) {
+        if (desde != null) {
+            query.setParameter("desde", desde);
+        }
+        if (hasta != null) {
+            query.setParameter("hasta", hasta);
+        }
+    }
+
+    private static Long idDe(Long id, String entidad) {
+        if (id == null) {
+            throw new IllegalArgumentException("La entidad " + entidad + " debe estar persistida");
+        }
+        return id;
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.servicio;
+
+import lombok.Getter;
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.Medico;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Criterios de búsqueda de turnos. La duración de cada turno no se elige acá: es la que el
+ * {@link CitaManager} usa al reservar para ese médico y esa sala (ver {@link DuracionCitas}).
+ */
+@Getter
+public class ConsultaTurnos {
+    public static final Duration HORIZONTE_POR_DEFECTO = Duration.ofDays(30);
+
+    private final EspecialidadMedica especialidad;
+    private final Medico medico;
+    private final String tipoSala;
+    private final LocalDateTime desde;
+    private final LocalDateTime hasta;
+    private final int cantidad;
+
+    private ConsultaTurnos(ConsultaTurnosBuilder builder) {
+        this.especialidad = Objects.requireNonNull(builder.especialidad, "La especialidad no puede ser nula");
+        this.desde = Objects.requireNonNull(builder.desde, "La fecha desde no puede ser nula");
+        if (builder.cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad de turnos debe ser mayor que cero");
+        }
+        this.medico = builder.medico;
+        this.tipoSala = builder.tipoSala;
+        this.hasta = builder.hasta != null ? builder.hasta : desde.plus(HORIZONTE_POR_DEFECTO);
+        this.cantidad = builder.cantidad;
+    }
+
+    public static class ConsultaTurnosBuilder {
+        private EspecialidadMedica especialidad;
+        private Medico medico;
+        private String tipoSala;
+        private LocalDateTime desde;
+        private LocalDateTime hasta;
+        private int cantidad = 1;
+
+        public ConsultaTurnosBuilder especialidad(EspecialidadMedica especialidad) {
+            this.especialidad = especialidad;
+            return this;
+        }
+
+        public ConsultaTurnosBuilder medico(Medico medico) {
+            this.medico = medico;
+            return this;
+        }
+
+        public ConsultaTurnosBuilder tipoSala(String tipoSala) {
+            this.tipoSala = tipoSala;
+            return this;
+        }
+
+        public ConsultaTurnosBuilder desde(LocalDateTime desde) {
+            this.desde = desde;
+            return this;
+        }
+
+        public ConsultaTurnosBuilder hasta(LocalDateTime hasta) {
+            this.hasta = hasta;
+            return this;
+        }
+
+        public ConsultaTurnosBuilder cantidad(int cantidad) {
+            this.cantidad = cantidad;
+            return this;
+        }
+
+        public ConsultaTurnos build() {
+            return new ConsultaTurnos(this);
+        }
+    }
+
+    public static ConsultaTurnosBuilder builder() {
+        return new ConsultaTurnosBuilder();
+    }
+}
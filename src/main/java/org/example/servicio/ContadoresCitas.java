@@ -0,0 +1,66 @@
+package org.example.servicio;
+
+import org.example.entidades.EstadoCita;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cantidad de citas por estado mantenida de forma incremental: cada alta suma en su estado y
+ * cada cambio de estado mueve una unidad de un contador a otro. Las lecturas no tocan la base
+ * ni recorren las citas. Un cambio hecho directamente con {@code Cita.setEstado} no se refleja.
+ */
+public class ContadoresCitas {
+    private final Map<EstadoCita, LongAdder> porEstado = new EnumMap<>(EstadoCita.class);
+
+    public ContadoresCitas() {
+        for (EstadoCita estado : EstadoCita.values()) {
+            porEstado.put(estado, new LongAdder());
+        }
+    }
+
+    public void registrar(EstadoCita estado) {
+        porEstado.get(estado).increment();
+    }
+
+    public void cambiar(EstadoCita anterior, EstadoCita nuevo) {
+        if (anterior == nuevo) {
+            return;
+        }
+        porEstado.get(anterior).decrement();
+        porEstado.get(nuevo).increment();
+    }
+
+    /**
+     * Reemplaza los contadores por los valores dados, por ejemplo los de
+     * {@link EstadisticasService#calcular()} al arrancar sobre una base con datos.
+     */
+    public void reiniciar(Map<EstadoCita, Long> cantidades) {
+        for (Map.Entry<EstadoCita, LongAdder> entrada : porEstado.entrySet()) {
+            LongAdder contador = entrada.getValue();
+            contador.reset();
+            contador.add(cantidades.getOrDefault(entrada.getKey(), 0L));
+        }
+    }
+
+    public long cantidad(EstadoCita estado) {
+        return porEstado.get(estado).sum();
+    }
+
+    public long total() {
+        long total = 0;
+        for (LongAdder contador : porEstado.values()) {
+            total += contador.sum();
+        }
+        return total;
+    }
+
+    public Map<EstadoCita, Long> instantanea() {
+        Map<EstadoCita, Long> copia = new EnumMap<>(EstadoCita.class);
+        for (Map.Entry<EstadoCita, LongAdder> entrada : porEstado.entrySet()) {
+            copia.put(entrada.getKey(), entrada.getValue().sum());
+        }
+        return copia;
+    }
+}
@@ -0,0 +1,334 @@
+package org.example.servicio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Archivo de sólo agregado con confirmación en grupo.
+ * <p>
+ * Cabecera: mágico. Luego un registro por operación: largo, CRC32 y texto UTF-8. Un único hilo
+ * escritor toma de la cola todos los registros pendientes (y, si hay ventana, espera hasta que
+ * venza para juntar más), los escribe con una sola llamada y hace un único {@code force} por
+ * lote; recién entonces completa los futuros de todos ellos. Al abrir se leen los registros
+ * válidos y se trunca lo que quede después del último, por ejemplo un lote a medio escribir.
+ * <p>
+ * Tras un error de escritura el diario queda inutilizable y todas las operaciones siguientes
+ * fallan con ese error. Si el escritor termina, por cierre o interrupción, los registros que no
+ * llegó a escribir fallan en lugar de quedar esperando.
+ */
+final class DiarioCitas implements AutoCloseable {
+    private static final int MAGICO = 0x48434a31; // "HCJ1"
+    private static final int TAMANIO_CABECERA = 4;
+    private static final int TAMANIO_ENCABEZADO_REGISTRO = 4 + 4;
+    private static final int TAMANIO_MAXIMO_REGISTRO = 1024 * 1024;
+    private static final Pendiente FIN = new Pendiente(null);
+
+    private final BlockingQueue<Pendiente> cola = new LinkedBlockingQueue<>();
+    private final long ventanaNanos;
+    private final int maximoLote;
+    private final Thread escritor;
+    private final AtomicLong lotes = new AtomicLong();
+    private final AtomicLong registros = new AtomicLong();
+    private volatile FileChannel canal;
+    private volatile IOException falla;
+    // Protegido por this: encolar y cerrar no se intercalan, así nada entra en la cola después de FIN
+    private boolean cerrado;
+
+    @FunctionalInterface
+    interface Lector {
+        void leer(String registro) throws CitaException;
+    }
+
+    private DiarioCitas(FileChannel canal, Duration ventana, int maximoLote) {
+        this.canal = canal;
+        this.ventanaNanos = ventana.toNanos();
+        this.maximoLote = maximoLote;
+        this.escritor = new Thread(this::escribirLotes, "diario-citas");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    /**
+     * Abre o crea el diario, pasando cada registro válido al lector en orden, y lo deja listo
+     * para agregar al final.
+     */
+    static DiarioCitas abrir(Path archivo, Duration ventana, int maximoLote, Lector lector)
+            throws IOException, CitaException {
+        if (ventana.isNegative() || maximoLote <= 0) {
+            throw new IllegalArgumentException("Ventana o tamaño máximo de lote inválidos");
+        }
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long fin = reproducir(canal, archivo, lector);
+            canal.truncate(fin);
+            canal.position(fin);
+            canal.force(true);
+            return new DiarioCitas(canal, ventana, maximoLote);
+        } catch (IOException | CitaException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    // Crea un diario vacío y devuelve su canal, listo para cambiarArchivo
+    static FileChannel crear(Path archivo) throws IOException {
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        try {
+            escribirCabecera(canal);
+            return canal;
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    CompletableFuture<Void> agregar(String registro) {
+        Pendiente pendiente = new Pendiente(registro.getBytes(StandardCharsets.UTF_8));
+        if (pendiente.bytes.length > TAMANIO_MAXIMO_REGISTRO) {
+            throw new IllegalArgumentException("Registro de diario demasiado grande: " + pendiente.bytes.length + " bytes");
+        }
+        encolar(pendiente);
+        return pendiente.futuro;
+    }
+
+    // Espera a que todo lo encolado hasta ahora esté en disco
+    void esperarPendientes() throws IOException {
+        Pendiente marca = new Pendiente(new byte[0]);
+        encolar(marca);
+        esperar(marca.futuro);
+    }
+
+    /**
+     * Pasa a escribir en el canal de otro diario (ver {@link #crear}). No debe haber registros
+     * encolados ni agregarse otros hasta que termine.
+     */
+    void cambiarArchivo(FileChannel nuevo) throws IOException {
+        esperarPendientes();
+        FileChannel anterior = canal;
+        canal = nuevo;
+        anterior.close();
+    }
+
+    long getLotes() {
+        return lotes.get();
+    }
+
+    long getRegistros() {
+        return registros.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (!cerrado) {
+                cerrado = true;
+                cola.add(FIN);
+            }
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            canal.close();
+        }
+    }
+
+    private synchronized void encolar(Pendiente pendiente) {
+        if (falla != null) {
+            pendiente.futuro.completeExceptionally(falla);
+            return;
+        }
+        if (cerrado) {
+            throw new IllegalStateException("El diario de citas está cerrado");
+        }
+        cola.add(pendiente);
+    }
+
+    static void esperar(CompletableFuture<Void> futuro) throws IOException {
+        try {
+            futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private void escribirLotes() {
+        List<Pendiente> lote = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        CRC32 crc = new CRC32();
+        boolean terminar = false;
+        try {
+            while (!terminar) {
+                try {
+                    lote.add(cola.take());
+                    if (ventanaNanos > 0) {
+                        long limite = System.nanoTime() + ventanaNanos;
+                        while (lote.size() < maximoLote) {
+                            Pendiente siguiente = cola.poll(limite - System.nanoTime(), TimeUnit.NANOSECONDS);
+                            if (siguiente == null) {
+                                break;
+                            }
+                            lote.add(siguiente);
+                            cola.drainTo(lote, maximoLote - lote.size());
+                        }
+                    } else {
+                        cola.drainTo(lote, maximoLote - 1);
+                    }
+                } catch (InterruptedException e) {
+                    falla = new IOException("Se interrumpió el escritor del diario de citas");
+                    terminar = true;
+                }
+                if (lote.remove(FIN)) {
+                    // Lo encolado antes del cierre se escribe igual
+                    cola.drainTo(lote);
+                    lote.remove(FIN);
+                    terminar = true;
+                }
+                if (lote.isEmpty()) {
+                    continue;
+                }
+
+                try {
+                    if (falla != null) {
+                        throw falla;
+                    }
+                    int escritos = 0;
+                    for (Pendiente pendiente : lote) {
+                        if (pendiente.bytes.length == 0) {
+                            continue;
+                        }
+                        int necesario = TAMANIO_ENCABEZADO_REGISTRO + pendiente.bytes.length;
+                        if (buffer.remaining() < necesario) {
+                            volcar(buffer);
+                            if (buffer.capacity() < necesario) {
+                                buffer = ByteBuffer.allocateDirect(necesario);
+                            }
+                        }
+                        crc.reset();
+                        crc.update(pendiente.bytes);
+                        buffer.putInt(pendiente.bytes.length).putInt((int) crc.getValue()).put(pendiente.bytes);
+                        escritos++;
+                    }
+                    volcar(buffer);
+                    canal.force(false);
+                    lotes.incrementAndGet();
+                    registros.addAndGet(escritos);
+                    for (Pendiente pendiente : lote) {
+                        pendiente.futuro.complete(null);
+                    }
+                } catch (IOException e) {
+                    falla = e;
+                    buffer.clear();
+                    for (Pendiente pendiente : lote) {
+                        pendiente.futuro.completeExceptionally(e);
+                    }
+                }
+                lote.clear();
+            }
+        } finally {
+            synchronized (this) {
+                cerrado = true;
+            }
+            cola.drainTo(lote);
+            lote.remove(FIN);
+            IOException error = falla != null ? falla
+                    : new IOException("El diario de citas se cerró sin escribir el registro");
+            for (Pendiente pendiente : lote) {
+                pendiente.futuro.completeExceptionally(error);
+            }
+        }
+    }
+
+    private void volcar(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void escribirCabecera(FileChannel canal) throws IOException {
+        ByteBuffer cabecera = ByteBuffer.allocate(TAMANIO_CABECERA).putInt(MAGICO);
+        cabecera.flip();
+        while (cabecera.hasRemaining()) {
+            canal.write(cabecera);
+        }
+        canal.force(true);
+    }
+
+    // Devuelve la posición siguiente al último registro válido
+    private static long reproducir(FileChannel canal, Path archivo, Lector lector) throws IOException, CitaException {
+        long tamanio = canal.size();
+        if (tamanio < TAMANIO_CABECERA) {
+            canal.truncate(0);
+            escribirCabecera(canal);
+            return TAMANIO_CABECERA;
+        }
+        ByteBuffer cabecera = ByteBuffer.allocate(TAMANIO_CABECERA);
+        canal.read(cabecera, 0);
+        if (cabecera.getInt(0) != MAGICO) {
+            throw new IOException("El archivo no es un diario de citas: " + archivo);
+        }
+
+        ByteBuffer encabezado = ByteBuffer.allocate(TAMANIO_ENCABEZADO_REGISTRO);
+        CRC32 crc = new CRC32();
+        long posicion = TAMANIO_CABECERA;
+        while (posicion + TAMANIO_ENCABEZADO_REGISTRO <= tamanio) {
+            encabezado.clear();
+            leerCompleto(canal, encabezado, posicion);
+            int largo = encabezado.getInt(0);
+            int suma = encabezado.getInt(4);
+            if (largo <= 0 || largo > TAMANIO_MAXIMO_REGISTRO
+                    || posicion + TAMANIO_ENCABEZADO_REGISTRO + largo > tamanio) {
+                break;
+            }
+            ByteBuffer datos = ByteBuffer.allocate(largo);
+            leerCompleto(canal, datos, posicion + TAMANIO_ENCABEZADO_REGISTRO);
+            crc.reset();
+            crc.update(datos.array());
+            if ((int) crc.getValue() != suma) {
+                break;
+            }
+            lector.leer(new String(datos.array(), StandardCharsets.UTF_8));
+            posicion += TAMANIO_ENCABEZADO_REGISTRO + largo;
+        }
+        return posicion;
+    }
+
+    private static void leerCompleto(FileChannel canal, ByteBuffer destino, long posicion) throws IOException {
+        while (destino.hasRemaining()) {
+            int leidos = canal.read(destino, posicion + destino.position());
+            if (leidos < 0) {
+                throw new IOException("Fin inesperado del diario de citas");
+            }
+        }
+    }
+
+    private static final class Pendiente {
+        final byte[] bytes;
+        final CompletableFuture<Void> futuro = new CompletableFuture<>();
+
+        Pendiente(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
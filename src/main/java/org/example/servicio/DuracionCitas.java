@@ -0,0 +1,102 @@
+package org.example.servicio;
+
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.Medico;
+import org.example.entidades.Sala;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+public class DuracionCitas {
+    public static final Duration DURACION_POR_DEFECTO = Duration.ofMinutes(30);
+
+    private final Duration porDefecto;
+    private final Map<String, Duration> porTipoSala;
+    private final Map<EspecialidadMedica, Duration> porEspecialidad;
+    private final Duration maxima;
+
+    private DuracionCitas(DuracionCitasBuilder builder) {
+        this.porDefecto = validarDuracion(builder.porDefecto != null ? builder.porDefecto : DURACION_POR_DEFECTO);
+        this.porTipoSala = Collections.unmodifiableMap(new HashMap<>(builder.porTipoSala));
+        this.porEspecialidad = Collections.unmodifiableMap(new EnumMap<>(builder.porEspecialidad));
+
+        // La duración máxima acota las búsquedas por rango sobre citas existentes
+        Duration max = this.porDefecto;
+        for (Duration duracion : porTipoSala.values()) {
+            if (duracion.compareTo(max) > 0) {
+                max = duracion;
+            }
+        }
+        for (Duration duracion : porEspecialidad.values()) {
+            if (duracion.compareTo(max) > 0) {
+                max = duracion;
+            }
+        }
+        this.maxima = max;
+    }
+
+    public static class DuracionCitasBuilder {
+        private Duration porDefecto;
+        private final Map<String, Duration> porTipoSala = new HashMap<>();
+        private final Map<EspecialidadMedica, Duration> porEspecialidad = new EnumMap<>(EspecialidadMedica.class);
+
+        public DuracionCitasBuilder porDefecto(Duration duracion) {
+            this.porDefecto = duracion;
+            return this;
+        }
+
+        public DuracionCitasBuilder tipoSala(String tipo, Duration duracion) {
+            Objects.requireNonNull(tipo, "El tipo de sala no puede ser nulo");
+            this.porTipoSala.put(normalizarTipo(tipo), validarDuracion(duracion));
+            return this;
+        }
+
+        public DuracionCitasBuilder especialidad(EspecialidadMedica especialidad, Duration duracion) {
+            Objects.requireNonNull(especialidad, "La especialidad no puede ser nula");
+            this.porEspecialidad.put(especialidad, validarDuracion(duracion));
+            return this;
+        }
+
+        public DuracionCitas build() {
+            return new DuracionCitas(this);
+        }
+    }
+
+    public static DuracionCitasBuilder builder() {
+        return new DuracionCitasBuilder();
+    }
+
+    public static DuracionCitas porDefecto() {
+        return builder().build();
+    }
+
+    public Duration duracionPara(Medico medico, Sala sala) {
+        // El tipo de sala tiene prioridad sobre la especialidad del médico
+        Duration duracion = porTipoSala.get(normalizarTipo(sala.getTipo()));
+        if (duracion == null) {
+            duracion = porEspecialidad.get(medico.getEspecialidad());
+        }
+        return duracion != null ? duracion : porDefecto;
+    }
+
+    public Duration getMaxima() {
+        return maxima;
+    }
+
+    private static String normalizarTipo(String tipo) {
+        return tipo.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Duration validarDuracion(Duration duracion) {
+        Objects.requireNonNull(duracion, "La duración no puede ser nula");
+        if (duracion.isNegative() || duracion.isZero()) {
+            throw new IllegalArgumentException("La duración debe ser mayor que cero");
+        }
+        return duracion;
+    }
+}
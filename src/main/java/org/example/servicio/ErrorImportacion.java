@@ -0,0 +1,7 @@
+package org.example.servicio;
+
+/**
+ * Fila rechazada por {@link ImportadorPersonas}: número de línea del archivo (desde 1) y motivo.
+ */
+public record ErrorImportacion(int linea, String mensaje) {
+}
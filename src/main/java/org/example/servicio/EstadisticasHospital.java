@@ -0,0 +1,23 @@
+package org.example.servicio;
+
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.EstadoCita;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Conteos agregados del hospital. Los mapas traen todas las constantes del enum, con cero
+ * cuando no hay filas.
+ */
+public record EstadisticasHospital(Map<EspecialidadMedica, Long> medicosPorEspecialidad,
+                                   Map<EstadoCita, Long> citasPorEstado,
+                                   long totalSalas,
+                                   long totalPacientes) {
+
+    public EstadisticasHospital {
+        medicosPorEspecialidad = Collections.unmodifiableMap(new EnumMap<>(medicosPorEspecialidad));
+        citasPorEstado = Collections.unmodifiableMap(new EnumMap<>(citasPorEstado));
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.servicio;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.EstadoCita;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Estadísticas del hospital calculadas en la base con agregados GROUP BY: una consulta por
+ * dimensión en lugar de una por cada valor del enum. Los totales de salas y pacientes viajan
+ * como subconsultas escalares en la fila de cada especialidad, así que son dos sentencias.
+ */
+public class EstadisticasService {
+    private final EntityManagerFactory emf;
+
+    public EstadisticasService(EntityManagerFactory emf) {
+        this.emf = Objects.requireNonNull(emf, "El EntityManagerFactory no puede ser nulo");
+    }
+
+    public EstadisticasHospital calcular() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Map<EspecialidadMedica, Long> medicos = new EnumMap<>(EspecialidadMedica.class);
+            for (EspecialidadMedica especialidad : EspecialidadMedica.values()) {
+                medicos.put(especialidad, 0L);
+            }
+            List<Object[]> filas = em.createQuery(
+                            "SELECT m.especialidad, COUNT(m), (SELECT COUNT(s) FROM Sala s),"
+                                    + " (SELECT COUNT(p) FROM Paciente p)"
+                                    + " FROM Medico m GROUP BY m.especialidad", Object[].class)
+                    .getResultList();
+            for (Object[] fila : filas) {
+                medicos.put((EspecialidadMedica) fila[0], ((Number) fila[1]).longValue());
+            }
+            Object[] totales;
+            if (filas.isEmpty()) {
+                // Sin médicos no hay filas que traigan los totales
+                totales = em.createQuery(
+                                "SELECT COUNT(s), (SELECT COUNT(p) FROM Paciente p) FROM Sala s", Object[].class)
+                        .getSingleResult();
+            } else {
+                totales = new Object[]{filas.get(0)[2], filas.get(0)[3]};
+            }
+            return new EstadisticasHospital(
+                    medicos,
+                    contarCitasPorEstado(em),
+                    ((Number) totales[0]).longValue(),
+                    ((Number) totales[1]).longValue());
+        } finally {
+            em.close();
+        }
+    }
+
+    public Map<EstadoCita, Long> contarCitasPorEstado() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return contarCitasPorEstado(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    private Map<EstadoCita, Long> contarCitasPorEstado(EntityManager em) {
+        Map<EstadoCita, Long> conteos = new EnumMap<>(EstadoCita.class);
+        for (EstadoCita estado : EstadoCita.values()) {
+            conteos.put(estado, 0L);
+        }
+        List<Object[]> filas = em.createQuery(
+                        "SELECT c.estado, COUNT(c) FROM Cita c GROUP BY c.estado", Object[].class)
+                .getResultList();
+        for (Object[] fila : filas) {
+            conteos.put((EstadoCita) fila[0], ((Number) fila[1]).longValue());
+        }
+        return conteos;
+    }
+}
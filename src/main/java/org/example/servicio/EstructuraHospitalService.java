@@ -0,0 +1,71 @@
+package org.example.servicio;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entidades.Departamento;
+import org.example.entidades.Medico;
+import org.example.entidades.Sala;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Búsquedas sobre la estructura del hospital (departamentos, médicos y salas). Las entidades,
+ * sus colecciones y las consultas por DNI y por número de sala se sirven desde la caché de
+ * segundo nivel; Hibernate invalida las entradas al confirmar cualquier escritura sobre ellas.
+ */
+public class EstructuraHospitalService {
+    private final EntityManagerFactory emf;
+
+    public EstructuraHospitalService(EntityManagerFactory emf) {
+        this.emf = Objects.requireNonNull(emf, "El EntityManagerFactory no puede ser nulo");
+    }
+
+    public Optional<Medico> buscarMedicoPorDni(String dni) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Medico> medicos = em.createNamedQuery(Medico.POR_DNI, Medico.class)
+                    .setParameter("dni", dni)
+                    .getResultList();
+            return medicos.stream().findFirst();
+        } finally {
+            em.close();
+        }
+    }
+
+    public Optional<Sala> buscarSalaPorNumero(String numero) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Sala> salas = em.createNamedQuery(Sala.POR_NUMERO, Sala.class)
+                    .setParameter("numero", numero)
+                    .getResultList();
+            return salas.stream().findFirst();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Departamento con sus médicos y salas ya inicializados, para usarse fuera del
+     * EntityManager.
+     */
+    public Optional<Departamento> buscarDepartamento(Long id) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Departamento departamento = em.find(Departamento.class, id);
+            if (departamento == null) {
+                return Optional.empty();
+            }
+            departamento.getMedicos().size();
+            departamento.getSalas().size();
+            return Optional.of(departamento);
+        } finally {
+            em.close();
+        }
+    }
+
+    public void vaciarCache() {
+        emf.getCache().evictAll();
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.servicio;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias sin bloqueos, con cubetas log-lineales al estilo HDR: cada potencia
+ * de dos se divide en 8 sub-cubetas, lo que da un error relativo máximo de 12,5% en todo el
+ * rango de {@code long}. Registrar un valor es un incremento atómico sin reservar memoria.
+ */
+public class HistogramaLatencia {
+    private static final int BITS_SUBCUBETA = 3;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    private static final int CUBETAS = (64 - BITS_SUBCUBETA + 1) * SUBCUBETAS;
+
+    private final AtomicLongArray cubetas = new AtomicLongArray(CUBETAS);
+    private final LongAdder cantidad = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    public void registrar(long nanos) {
+        long valor = Math.max(nanos, 0);
+        cubetas.incrementAndGet(indice(valor));
+        cantidad.increment();
+        suma.add(valor);
+        maximo.accumulate(valor);
+    }
+
+    public ResumenLatencia resumen() {
+        long[] copia = new long[CUBETAS];
+        long total = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            copia[i] = cubetas.get(i);
+            total += copia[i];
+        }
+        long sumaTotal = suma.sum();
+        return new ResumenLatencia(total,
+                total == 0 ? 0 : sumaTotal / total,
+                percentil(copia, total, 0.50),
+                percentil(copia, total, 0.90),
+                percentil(copia, total, 0.99),
+                percentil(copia, total, 0.999),
+                maximo.get());
+    }
+
+    static int indice(long valor) {
+        if (valor < SUBCUBETAS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int subcubeta = (int) (valor >>> (exponente - BITS_SUBCUBETA)) & (SUBCUBETAS - 1);
+        return (exponente - BITS_SUBCUBETA + 1) * SUBCUBETAS + subcubeta;
+    }
+
+    // Punto medio de la cubeta como valor representativo
+    static long valorRepresentativo(int indice) {
+        if (indice < SUBCUBETAS) {
+            return indice;
+        }
+        int exponente = indice / SUBCUBETAS + BITS_SUBCUBETA - 1;
+        long ancho = 1L << (exponente - BITS_SUBCUBETA);
+        long inferior = (SUBCUBETAS + (long) (indice % SUBCUBETAS)) << (exponente - BITS_SUBCUBETA);
+        return inferior + ancho / 2;
+    }
+
+    private static long percentil(long[] cubetas, long total, double percentil) {
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = (long) Math.ceil(total * percentil);
+        long acumulado = 0;
+        for (int i = 0; i < cubetas.length; i++) {
+            acumulado += cubetas[i];
+            if (acumulado >= objetivo) {
+                return valorRepresentativo(i);
+            }
+        }
+        return valorRepresentativo(cubetas.length - 1);
+    }
+
+    public record ResumenLatencia(long cantidad, long mediaNanos, long p50Nanos, long p90Nanos,
+                                  long p99Nanos, long p999Nanos, long maximoNanos) {
+    }
+}
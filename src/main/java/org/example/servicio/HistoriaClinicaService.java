@@ -0,0 +1,194 @@
+package org.example.servicio;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.TypedQuery;
+import org.example.entidades.EntradaClinica;
+import org.example.entidades.HistoriaClinica;
+import org.example.entidades.Paciente;
+import org.example.entidades.TipoEntrada;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Lectura por páginas y alta de entradas de historias clínicas sin materializar la historia
+ * completa. Las páginas van de la entrada más reciente a la más antigua y se resuelven sobre el
+ * índice {@code entradas_clinicas(historia_clinica_id, fecha_registro, id)}.
+ * <p>
+ * Las entradas agregadas con {@link #agregarEntrada} se avisan a los observadores registrados
+ * una vez confirmadas; las que se persisten por la historia en otra unidad de trabajo las
+ * recoge {@link IndiceClinico#ponerAlDia}.
+ */
+public class HistoriaClinicaService {
+    private static final int TAMANIO_TANDA = 1000;
+    private static final String ORDEN_RECIENTES = " ORDER BY e.fechaRegistro DESC, e.id DESC";
+
+    private final EntityManagerFactory emf;
+    private final List<ObservadorEntradas> observadores = new CopyOnWriteArrayList<>();
+
+    public HistoriaClinicaService(EntityManagerFactory emf) {
+        this.emf = Objects.requireNonNull(emf, "El EntityManagerFactory no puede ser nulo");
+    }
+
+    public void registrarObservador(ObservadorEntradas observador) {
+        observadores.add(Objects.requireNonNull(observador, "El observador no puede ser nulo"));
+    }
+
+    public void quitarObservador(ObservadorEntradas observador) {
+        observadores.remove(observador);
+    }
+
+    public List<EntradaClinica> ultimasEntradas(Long historiaId, int cantidad) {
+        return entradas(historiaId, null, 0, cantidad);
+    }
+
+    /**
+     * Página {@code pagina} (desde 0) de las entradas de la historia, opcionalmente de un solo
+     * tipo.
+     */
+    public List<EntradaClinica> entradas(Long historiaId, TipoEntrada tipo, int pagina, int tamanio) {
+        Objects.requireNonNull(historiaId, "El id de la historia no puede ser nulo");
+        if (pagina < 0 || tamanio <= 0) {
+            throw new IllegalArgumentException("Página o tamaño de página inválidos");
+        }
+        EntityManager em = emf.createEntityManager();
+        try {
+            String jpql = "SELECT e FROM EntradaClinica e WHERE e.historiaClinica.id = :historia"
+                    + (tipo != null ? " AND e.tipo = :tipo" : "") + ORDEN_RECIENTES;
+            TypedQuery<EntradaClinica> query = em.createQuery(jpql, EntradaClinica.class)
+                    .setParameter("historia", historiaId)
+                    .setFirstResult(Math.multiplyExact(pagina, tamanio))
+                    .setMaxResults(tamanio);
+            if (tipo != null) {
+                query.setParameter("tipo", tipo);
+            }
+            return query.getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Entradas inmediatamente más antiguas que {@code ultima}, para recorrer historias largas
+     * sin el costo creciente de saltar filas con un desplazamiento.
+     */
+    public List<EntradaClinica> entradasAnteriores(Long historiaId, EntradaClinica ultima, int cantidad) {
+        Objects.requireNonNull(ultima, "La entrada de referencia no puede ser nula");
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("SELECT e FROM EntradaClinica e WHERE e.historiaClinica.id = :historia"
+                            + " AND (e.fechaRegistro < :fecha OR (e.fechaRegistro = :fecha AND e.id < :id))"
+                            + ORDEN_RECIENTES, EntradaClinica.class)
+                    .setParameter("historia", historiaId)
+                    .setParameter("fecha", ultima.getFechaRegistro())
+                    .setParameter("id", ultima.getId())
+                    .setMaxResults(cantidad)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    public long contarEntradas(Long historiaId) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("SELECT COUNT(e) FROM EntradaClinica e WHERE e.historiaClinica.id = :historia",
+                            Long.class)
+                    .setParameter("historia", historiaId)
+                    .getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Pacientes dueños de las historias indicadas, por ejemplo las devueltas por
+     * {@link IndiceClinico}. Consulta por tandas para no armar un IN con miles de parámetros.
+     */
+    public List<Paciente> pacientesDeHistorias(List<String> numerosHistoria) {
+        List<Paciente> pacientes = new ArrayList<>(numerosHistoria.size());
+        EntityManager em = emf.createEntityManager();
+        try {
+            for (int desde = 0; desde < numerosHistoria.size(); desde += TAMANIO_TANDA) {
+                List<String> tanda = numerosHistoria.subList(desde, Math.min(desde + TAMANIO_TANDA, numerosHistoria.size()));
+                pacientes.addAll(em.createQuery(
+                                "SELECT h.paciente FROM HistoriaClinica h WHERE h.numeroHistoria IN :numeros", Paciente.class)
+                        .setParameter("numeros", tanda)
+                        .getResultList());
+            }
+            return pacientes;
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Elimina el paciente junto con su historia y sus citas. Las entradas de la historia se
+     * borran antes con una sola sentencia; si no, la cascada las cargaría para borrarlas de a una.
+     */
+    public void eliminarPaciente(Long pacienteId) {
+        Objects.requireNonNull(pacienteId, "El id del paciente no puede ser nulo");
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            Paciente paciente = em.find(Paciente.class, pacienteId);
+            if (paciente == null) {
+                throw new IllegalArgumentException("Paciente no encontrado: " + pacienteId);
+            }
+            em.createQuery("DELETE FROM EntradaClinica e WHERE e.historiaClinica.id IN"
+                            + " (SELECT h.id FROM HistoriaClinica h WHERE h.paciente.id = :paciente)")
+                    .setParameter("paciente", pacienteId)
+                    .executeUpdate();
+            em.remove(paciente);
+            tx.commit();
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Agrega una entrada con un único INSERT: la historia se referencia por id, sin leerla ni
+     * cargar sus entradas anteriores. Sólo si hay observadores se lee además su número.
+     */
+    public EntradaClinica agregarEntrada(Long historiaId, TipoEntrada tipo, String texto) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            EntradaClinica entrada = EntradaClinica.builder()
+                    .historiaClinica(em.getReference(HistoriaClinica.class, historiaId))
+                    .tipo(tipo)
+                    .texto(texto)
+                    .build();
+            em.persist(entrada);
+            tx.commit();
+            if (!observadores.isEmpty()) {
+                String numeroHistoria = em.createQuery(
+                                "SELECT h.numeroHistoria FROM HistoriaClinica h WHERE h.id = :id", String.class)
+                        .setParameter("id", historiaId)
+                        .getSingleResult();
+                for (ObservadorEntradas observador : observadores) {
+                    observador.entradaAgregada(numeroHistoria, entrada);
+                }
+            }
+            return entrada;
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+}
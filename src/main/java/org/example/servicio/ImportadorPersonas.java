@@ -0,0 +1,357 @@
+package org.example.servicio;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entidades.Departamento;
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.Hospital;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Persona;
+import org.example.entidades.TipoSangre;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Alta masiva de pacientes y médicos desde un archivo CSV en UTF-8, una persona por línea:
+ * <pre>
+ * P,nombre,apellido,dni,fechaNacimiento,tipoSangre,telefono,direccion
+ * M,nombre,apellido,dni,fechaNacimiento,tipoSangre,matricula,especialidad
+ * </pre>
+ * La fecha va en formato ISO, el tipo de sangre como constante o descripción ({@code A+}) y la
+ * especialidad como constante. Una primera línea que no empiece con {@code P,} ni {@code M,} se
+ * toma como cabecera.
+ * <p>
+ * El archivo se lee por bloques de {@value #LINEAS_POR_BLOQUE} líneas. Las de cada bloque se
+ * interpretan en paralelo con los builders de las entidades; luego, en orden, se descartan los DNI
+ * y matrículas repetidos en el archivo o ya existentes en la base, y el resto se inserta en lotes
+ * JDBC desde una {@link StatelessSession}, sin contexto de persistencia ni cascadas. Si un lote
+ * falla se revierte y se reintenta fila por fila para aislar las que violan restricciones de la base.
+ */
+public class ImportadorPersonas {
+    public static final int TAMANIO_LOTE_POR_DEFECTO = 500;
+    static final int LINEAS_POR_BLOQUE = 10_000;
+    private static final int TAMANIO_TANDA_IN = 1000;
+    private static final Map<String, TipoSangre> TIPOS_SANGRE = new HashMap<>();
+
+    static {
+        for (TipoSangre tipo : TipoSangre.values()) {
+            TIPOS_SANGRE.put(tipo.name(), tipo);
+            TIPOS_SANGRE.put(tipo.getDescripcion(), tipo);
+        }
+    }
+
+    private final EntityManagerFactory emf;
+    private final int tamanioLote;
+
+    public ImportadorPersonas(EntityManagerFactory emf) {
+        this(emf, TAMANIO_LOTE_POR_DEFECTO);
+    }
+
+    public ImportadorPersonas(EntityManagerFactory emf, int tamanioLote) {
+        this.emf = Objects.requireNonNull(emf, "El EntityManagerFactory no puede ser nulo");
+        if (tamanioLote <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser positivo");
+        }
+        this.tamanioLote = tamanioLote;
+    }
+
+    /**
+     * Importa los pacientes del archivo en {@code hospital} y los médicos en {@code departamento},
+     * ambos ya guardados en la base. Sólo se fijan las claves foráneas: las colecciones en memoria
+     * del hospital y del departamento no cambian. Un médico de otra especialidad que la del
+     * departamento es un error de su fila.
+     */
+    public ResultadoImportacion importar(Path archivo, Hospital hospital, Departamento departamento) throws IOException {
+        Objects.requireNonNull(hospital, "El hospital no puede ser nulo");
+        Objects.requireNonNull(departamento, "El departamento no puede ser nulo");
+        if (hospital.getId() == null || departamento.getId() == null) {
+            throw new IllegalArgumentException("El hospital y el departamento deben estar guardados en la base");
+        }
+        long inicio = System.nanoTime();
+        Avance avance = new Avance();
+
+        EntityManager em = emf.createEntityManager();
+        StatelessSession sesion = emf.unwrap(SessionFactory.class).openStatelessSession();
+        try (BufferedReader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            sesion.setJdbcBatchSize(tamanioLote);
+            List<String> bloque = new ArrayList<>(LINEAS_POR_BLOQUE);
+            int primeraDelBloque = 1;
+            String linea = lector.readLine();
+            if (linea != null && !esFila(linea)) {
+                primeraDelBloque = 2;
+                linea = lector.readLine();
+            }
+            for (; linea != null; linea = lector.readLine()) {
+                bloque.add(linea);
+                if (bloque.size() == LINEAS_POR_BLOQUE) {
+                    procesar(bloque, primeraDelBloque, hospital, departamento, avance, em, sesion);
+                    primeraDelBloque += bloque.size();
+                    bloque.clear();
+                }
+            }
+            if (!bloque.isEmpty()) {
+                procesar(bloque, primeraDelBloque, hospital, departamento, avance, em, sesion);
+            }
+        } finally {
+            sesion.close();
+            em.close();
+        }
+
+        // Las inserciones sin sesión no invalidan las consultas cacheadas de médicos por DNI
+        emf.unwrap(SessionFactory.class).getCache().evictQueryRegion("consultas-estructura");
+
+        avance.errores.sort(Comparator.comparingInt(ErrorImportacion::linea));
+        return new ResultadoImportacion(avance.leidas, avance.importadas, avance.errores,
+                Duration.ofNanos(System.nanoTime() - inicio));
+    }
+
+    private void procesar(List<String> lineas, int primeraLinea, Hospital hospital, Departamento departamento,
+                          Avance avance, EntityManager em, StatelessSession sesion) {
+        Fila[] filas = new Fila[lineas.size()];
+        IntStream.range(0, lineas.size()).parallel()
+                .forEach(i -> filas[i] = interpretar(primeraLinea + i, lineas.get(i), hospital, departamento));
+
+        List<Fila> validas = new ArrayList<>();
+        for (Fila fila : filas) {
+            if (fila == null) {
+                continue;
+            }
+            avance.leidas++;
+            if (fila.error() != null) {
+                avance.errores.add(new ErrorImportacion(fila.linea(), fila.error()));
+            } else {
+                validas.add(fila);
+            }
+        }
+        validas = descartarDuplicados(validas, avance, em);
+        avance.importadas += persistir(sesion, validas, avance.errores);
+    }
+
+    private static boolean esFila(String linea) {
+        return linea.startsWith("P,") || linea.startsWith("M,");
+    }
+
+    private static Fila interpretar(int numeroLinea, String linea, Hospital hospital, Departamento departamento) {
+        if (linea.isBlank()) {
+            return null;
+        }
+        String[] campos = linea.split(",", -1);
+        if (campos.length != 8) {
+            return Fila.conError(numeroLinea, "Se esperaban 8 campos y hay " + campos.length);
+        }
+        for (int i = 0; i < campos.length; i++) {
+            campos[i] = campos[i].trim();
+        }
+        try {
+            TipoSangre tipoSangre = TIPOS_SANGRE.get(campos[5]);
+            if (tipoSangre == null) {
+                return Fila.conError(numeroLinea, "Tipo de sangre desconocido: " + campos[5]);
+            }
+            LocalDate fechaNacimiento = LocalDate.parse(campos[4]);
+            switch (campos[0]) {
+                case "P":
+                    return new Fila(numeroLinea, Paciente.builder()
+                            .nombre(campos[1])
+                            .apellido(campos[2])
+                            .dni(campos[3])
+                            .fechaNacimiento(fechaNacimiento)
+                            .tipoSangre(tipoSangre)
+                            .telefono(campos[6])
+                            .direccion(campos[7])
+                            .hospital(hospital)
+                            .build(), null);
+                case "M":
+                    return new Fila(numeroLinea, Medico.builder()
+                            .nombre(campos[1])
+                            .apellido(campos[2])
+                            .dni(campos[3])
+                            .fechaNacimiento(fechaNacimiento)
+                            .tipoSangre(tipoSangre)
+                            .numeroMatricula(campos[6])
+                            .especialidad(EspecialidadMedica.valueOf(campos[7]))
+                            .departamento(departamento)
+                            .build(), null);
+                default:
+                    return Fila.conError(numeroLinea, "Tipo de fila desconocido: " + campos[0]);
+            }
+        } catch (DateTimeParseException e) {
+            return Fila.conError(numeroLinea, "Fecha de nacimiento inválida: " + campos[4]);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return Fila.conError(numeroLinea, e.getMessage());
+        }
+    }
+
+    // Las repeticiones se buscan contra todo lo leído; la base, sólo por las claves nuevas del bloque
+    private static List<Fila> descartarDuplicados(List<Fila> filas, Avance avance, EntityManager em) {
+        List<ErrorImportacion> errores = avance.errores;
+        Set<String> dnisPacientes = new HashSet<>();
+        Set<String> dnisMedicos = new HashSet<>();
+        Set<String> matriculas = new HashSet<>();
+        List<Fila> unicas = new ArrayList<>(filas.size());
+        for (Fila fila : filas) {
+            if (fila.persona() instanceof Medico medico) {
+                if (!avance.dnisMedicos.add(medico.getDni())) {
+                    errores.add(new ErrorImportacion(fila.linea(), "DNI de médico repetido en el archivo: " + medico.getDni()));
+                    continue;
+                }
+                if (!avance.matriculas.add(medico.getMatricula().getNumero())) {
+                    errores.add(new ErrorImportacion(fila.linea(),
+                            "Matrícula repetida en el archivo: " + medico.getMatricula().getNumero()));
+                    continue;
+                }
+                dnisMedicos.add(medico.getDni());
+                matriculas.add(medico.getMatricula().getNumero());
+            } else if (avance.dnisPacientes.add(fila.persona().getDni())) {
+                dnisPacientes.add(fila.persona().getDni());
+            } else {
+                errores.add(new ErrorImportacion(fila.linea(),
+                        "DNI de paciente repetido en el archivo: " + fila.persona().getDni()));
+                continue;
+            }
+            unicas.add(fila);
+        }
+
+        Set<String> pacientesExistentes = existentes(em, "SELECT p.dni FROM Paciente p WHERE p.dni IN :valores", dnisPacientes);
+        Set<String> medicosExistentes = existentes(em, "SELECT m.dni FROM Medico m WHERE m.dni IN :valores", dnisMedicos);
+        Set<String> matriculasExistentes = existentes(em,
+                "SELECT m.matricula.numero FROM Medico m WHERE m.matricula.numero IN :valores", matriculas);
+        if (pacientesExistentes.isEmpty() && medicosExistentes.isEmpty() && matriculasExistentes.isEmpty()) {
+            return unicas;
+        }
+        List<Fila> nuevas = new ArrayList<>(unicas.size());
+        for (Fila fila : unicas) {
+            String dni = fila.persona().getDni();
+            if (fila.persona() instanceof Medico medico) {
+                if (medicosExistentes.contains(dni)) {
+                    errores.add(new ErrorImportacion(fila.linea(), "Ya existe un médico con DNI " + dni));
+                    continue;
+                }
+                if (matriculasExistentes.contains(medico.getMatricula().getNumero())) {
+                    errores.add(new ErrorImportacion(fila.linea(),
+                            "Ya existe un médico con matrícula " + medico.getMatricula().getNumero()));
+                    continue;
+                }
+            } else if (pacientesExistentes.contains(dni)) {
+                errores.add(new ErrorImportacion(fila.linea(), "Ya existe un paciente con DNI " + dni));
+                continue;
+            }
+            nuevas.add(fila);
+        }
+        return nuevas;
+    }
+
+    // Valores ya presentes en la base, consultados por tandas para no armar un IN enorme
+    private static Set<String> existentes(EntityManager em, String jpql, Set<String> valores) {
+        Set<String> encontrados = new HashSet<>();
+        List<String> lista = new ArrayList<>(valores);
+        for (int desde = 0; desde < lista.size(); desde += TAMANIO_TANDA_IN) {
+            encontrados.addAll(em.createQuery(jpql, String.class)
+                    .setParameter("valores", lista.subList(desde, Math.min(desde + TAMANIO_TANDA_IN, lista.size())))
+                    .getResultList());
+        }
+        return encontrados;
+    }
+
+    private int persistir(StatelessSession sesion, List<Fila> filas, List<ErrorImportacion> errores) {
+        int importadas = 0;
+        for (int desde = 0; desde < filas.size(); desde += tamanioLote) {
+            List<Fila> lote = filas.subList(desde, Math.min(desde + tamanioLote, filas.size()));
+            if (insertar(sesion, lote)) {
+                importadas += lote.size();
+                continue;
+            }
+            for (Fila fila : lote) {
+                try {
+                    insertarOFallar(sesion, List.of(fila));
+                    importadas++;
+                } catch (RuntimeException e) {
+                    errores.add(new ErrorImportacion(fila.linea(), "Error al guardar: " + causaRaiz(e)));
+                }
+            }
+        }
+        return importadas;
+    }
+
+    private static boolean insertar(StatelessSession sesion, List<Fila> lote) {
+        try {
+            insertarOFallar(sesion, lote);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static void insertarOFallar(StatelessSession sesion, List<Fila> lote) {
+        Transaction tx = sesion.beginTransaction();
+        try {
+            // Agrupadas por tabla: el lote JDBC se corta cada vez que cambia la sentencia
+            for (Fila fila : lote) {
+                if (fila.persona() instanceof Paciente) {
+                    sesion.insert(fila.persona());
+                }
+            }
+            for (Fila fila : lote) {
+                if (fila.persona() instanceof Medico) {
+                    sesion.insert(fila.persona());
+                }
+            }
+            // Sin cascadas: las historias clínicas se insertan aparte, después de sus pacientes
+            for (Fila fila : lote) {
+                if (fila.persona() instanceof Paciente paciente) {
+                    sesion.insert(paciente.getHistoriaClinica());
+                }
+            }
+            tx.commit();
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        }
+    }
+
+    private static String causaRaiz(Throwable error) {
+        Throwable causa = error;
+        while (causa.getCause() != null && causa.getCause() != causa) {
+            causa = causa.getCause();
+        }
+        return causa.getMessage();
+    }
+
+    // Estado que pasa de un bloque al siguiente
+    private static final class Avance {
+        final Set<String> dnisPacientes = new HashSet<>();
+        final Set<String> dnisMedicos = new HashSet<>();
+        final Set<String> matriculas = new HashSet<>();
+        final List<ErrorImportacion> errores = new ArrayList<>();
+        int leidas;
+        int importadas;
+    }
+
+    private record Fila(int linea, Persona persona, String error) {
+
+        static Fila conError(int linea, String error) {
+            return new Fila(linea, null, error);
+        }
+    }
+}
@@ -0,0 +1,466 @@
+package org.example.servicio;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entidades.EntradaClinica;
+import org.example.entidades.TipoEntrada;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido en memoria de las entradas de historias clínicas: para cada tipo de entrada
+ * y término, la lista ordenada de historias que lo contienen.
+ * <p>
+ * Las historias se numeran con ids densos, de modo que una consulta combina listas en un
+ * {@link BitSet} sin tocar la base. Los términos se guardan ordenados, lo que resuelve las
+ * búsquedas por prefijo con un rango del mapa. Registrado en
+ * {@link HistoriaClinicaService#registrarObservador}, se actualiza con cada entrada que el
+ * servicio confirma.
+ * <p>
+ * Se guarda en un archivo junto a la base con los ids de las entradas ya indexadas, un
+ * {@link BitSet} por partición de ids. Con secuencias cada sesión toma ids de un bloque propio,
+ * así que una entrada de id menor que el máximo leído puede confirmarse más tarde:
+ * {@link #ponerAlDia} lee en paralelo las particiones nuevas y, de las ya leídas, compara en la
+ * base la cantidad y la suma de ids con las marcadas; sólo las que difieren se vuelven a leer.
+ * Indexar una entrada dos veces no cambia el índice.
+ */
+public class IndiceClinico implements ObservadorEntradas {
+    public static final Path ARCHIVO_POR_DEFECTO = Path.of("data", "indice-clinico.bin");
+    private static final int MAGICO = 0x48434931; // "HCI1"
+    private static final int VERSION = 2;
+    // La versión 1 no guardaba las entradas indexadas: se carga y se vuelven a leer todas
+    private static final int VERSION_SIN_ENTRADAS = 1;
+    private static final int TAMANIO_PARTICION = 50_000;
+
+    // Diccionario de historias: número de historia <-> id denso usado en las listas
+    private final Map<String, Integer> idsPorNumero = new ConcurrentHashMap<>();
+    private final List<String> numeros = new ArrayList<>();
+    private final Map<TipoEntrada, ConcurrentSkipListMap<String, ListaIds>> terminos = new EnumMap<>(TipoEntrada.class);
+    private final AtomicLong ultimaEntrada = new AtomicLong();
+    // Entradas indexadas por partición: el bit i de la partición k es el id k * TAMANIO_PARTICION + i + 1
+    private final Map<Long, BitSet> entradasIndexadas = new ConcurrentHashMap<>();
+
+    public IndiceClinico() {
+        for (TipoEntrada tipo : TipoEntrada.values()) {
+            terminos.put(tipo, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    @Override
+    public void entradaAgregada(String numeroHistoria, EntradaClinica entrada) {
+        indexar(numeroHistoria, entrada.getTipo(), entrada.getTexto());
+        marcar(entrada.getId());
+    }
+
+    public void indexar(String numeroHistoria, TipoEntrada tipo, String texto) {
+        int id = idDe(numeroHistoria);
+        ConcurrentSkipListMap<String, ListaIds> porTermino = terminos.get(tipo);
+        for (String termino : Tokenizador.terminos(texto)) {
+            porTermino.computeIfAbsent(termino, t -> new ListaIds()).agregar(id);
+        }
+    }
+
+    /**
+     * Números de las historias que contienen todos los términos del texto, en entradas del
+     * tipo dado o de cualquier tipo si es {@code null}.
+     */
+    public List<String> buscar(TipoEntrada tipo, String texto) {
+        List<String> consulta = Tokenizador.terminos(texto);
+        if (consulta.isEmpty()) {
+            return List.of();
+        }
+        BitSet resultado = null;
+        for (String termino : consulta) {
+            BitSet coincidencias = new BitSet();
+            for (ConcurrentSkipListMap<String, ListaIds> porTermino : mapasDe(tipo)) {
+                ListaIds ids = porTermino.get(termino);
+                if (ids != null) {
+                    ids.agregarA(coincidencias);
+                }
+            }
+            if (resultado == null) {
+                resultado = coincidencias;
+            } else {
+                resultado.and(coincidencias);
+            }
+            if (resultado.isEmpty()) {
+                break;
+            }
+        }
+        return numerosDe(resultado);
+    }
+
+    /**
+     * Números de las historias con algún término que empieza con el prefijo, por ejemplo
+     * "penic" para "Penicilina".
+     */
+    public List<String> buscarPrefijo(TipoEntrada tipo, String prefijo) {
+        String normalizado = Tokenizador.normalizar(prefijo);
+        if (normalizado.isEmpty()) {
+            return List.of();
+        }
+        BitSet coincidencias = new BitSet();
+        for (ConcurrentSkipListMap<String, ListaIds> porTermino : mapasDe(tipo)) {
+            for (ListaIds ids : porTermino.subMap(normalizado, true, normalizado + Character.MAX_VALUE, false).values()) {
+                ids.agregarA(coincidencias);
+            }
+        }
+        return numerosDe(coincidencias);
+    }
+
+    public int cantidadHistorias() {
+        return idsPorNumero.size();
+    }
+
+    public long getUltimaEntrada() {
+        return ultimaEntrada.get();
+    }
+
+    /**
+     * Indexa las entradas de la base que todavía no están en el índice, repartiendo las
+     * particiones de ids entre {@code hilos} hilos, cada uno con su propio EntityManager. Las
+     * particiones posteriores a la última entrada leída se indexan completas; las anteriores sólo
+     * si la base tiene entradas que el índice no marcó, por ejemplo de un bloque de la secuencia
+     * que se confirmó tarde.
+     */
+    public void ponerAlDia(EntityManagerFactory emf, int hilos) {
+        long leidas = ultimaEntrada.get();
+        Long maximo;
+        EntityManager em = emf.createEntityManager();
+        try {
+            maximo = em.createQuery("SELECT MAX(e.id) FROM EntradaClinica e", Long.class).getSingleResult();
+        } finally {
+            em.close();
+        }
+        if (maximo == null) {
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (long particion = 0; particion * TAMANIO_PARTICION < maximo; particion++) {
+                long desde = particion * TAMANIO_PARTICION;
+                long hasta = Math.min(desde + TAMANIO_PARTICION, maximo);
+                tareas.add(executor.submit(() -> {
+                    if (desde < leidas && completa(emf, desde, hasta)) {
+                        return;
+                    }
+                    indexarRango(emf, desde, hasta);
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconstrucción del índice clínico interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error al reconstruir el índice clínico", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        ultimaEntrada.accumulateAndGet(maximo, Math::max);
+    }
+
+    public static IndiceClinico reconstruir(EntityManagerFactory emf, int hilos) {
+        IndiceClinico indice = new IndiceClinico();
+        indice.ponerAlDia(emf, hilos);
+        return indice;
+    }
+
+    /**
+     * Carga el índice guardado, si existe, y lo completa con las entradas nuevas de la base.
+     */
+    public static IndiceClinico abrir(Path archivo, EntityManagerFactory emf, int hilos) throws IOException {
+        IndiceClinico indice = Files.exists(archivo) ? cargar(archivo) : new IndiceClinico();
+        indice.ponerAlDia(emf, hilos);
+        return indice;
+    }
+
+    /**
+     * Escribe el índice en un archivo temporal y lo reemplaza al terminar. Las altas
+     * concurrentes pueden quedar fuera; las ya persistidas se recuperan con {@link #ponerAlDia}.
+     */
+    public void guardar(Path archivo) throws IOException {
+        Files.createDirectories(archivo.toAbsolutePath().getParent());
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (DataOutputStream salida = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporal), 64 * 1024))) {
+            salida.writeInt(MAGICO);
+            salida.writeInt(VERSION);
+            salida.writeLong(ultimaEntrada.get());
+            List<Map.Entry<Long, BitSet>> particiones = new ArrayList<>(entradasIndexadas.entrySet());
+            salida.writeInt(particiones.size());
+            for (Map.Entry<Long, BitSet> particion : particiones) {
+                long[] bits;
+                synchronized (particion.getValue()) {
+                    bits = particion.getValue().toLongArray();
+                }
+                salida.writeLong(particion.getKey());
+                salida.writeInt(bits.length);
+                for (long palabra : bits) {
+                    salida.writeLong(palabra);
+                }
+            }
+            List<String> copiaNumeros;
+            synchronized (numeros) {
+                copiaNumeros = new ArrayList<>(numeros);
+            }
+            salida.writeInt(copiaNumeros.size());
+            for (String numero : copiaNumeros) {
+                salida.writeUTF(numero);
+            }
+            for (TipoEntrada tipo : TipoEntrada.values()) {
+                // Copia estable de los términos: el mapa puede crecer mientras se escribe
+                List<Map.Entry<String, ListaIds>> entradas = new ArrayList<>(terminos.get(tipo).entrySet());
+                salida.writeInt(entradas.size());
+                for (Map.Entry<String, ListaIds> entrada : entradas) {
+                    salida.writeUTF(entrada.getKey());
+                    int[] ids = entrada.getValue().copia(copiaNumeros.size());
+                    salida.writeInt(ids.length);
+                    int anterior = 0;
+                    for (int id : ids) {
+                        escribirVarInt(salida, id - anterior);
+                        anterior = id;
+                    }
+                }
+            }
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static IndiceClinico cargar(Path archivo) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(archivo), 64 * 1024))) {
+            if (entrada.readInt() != MAGICO) {
+                throw new IOException("El archivo no es un índice clínico: " + archivo);
+            }
+            int version = entrada.readInt();
+            if (version != VERSION && version != VERSION_SIN_ENTRADAS) {
+                throw new IOException("Versión de índice clínico no soportada: " + version);
+            }
+            IndiceClinico indice = new IndiceClinico();
+            long ultima = entrada.readLong();
+            if (version == VERSION) {
+                indice.ultimaEntrada.set(ultima);
+                int cantidadParticiones = entrada.readInt();
+                for (int p = 0; p < cantidadParticiones; p++) {
+                    long particion = entrada.readLong();
+                    long[] bits = new long[entrada.readInt()];
+                    for (int i = 0; i < bits.length; i++) {
+                        bits[i] = entrada.readLong();
+                    }
+                    indice.entradasIndexadas.put(particion, BitSet.valueOf(bits));
+                }
+            }
+            int cantidadNumeros = entrada.readInt();
+            for (int i = 0; i < cantidadNumeros; i++) {
+                indice.idDe(entrada.readUTF());
+            }
+            for (TipoEntrada tipo : TipoEntrada.values()) {
+                ConcurrentSkipListMap<String, ListaIds> porTermino = indice.terminos.get(tipo);
+                int cantidadTerminos = entrada.readInt();
+                for (int t = 0; t < cantidadTerminos; t++) {
+                    String termino = entrada.readUTF();
+                    int[] ids = new int[entrada.readInt()];
+                    int anterior = 0;
+                    for (int i = 0; i < ids.length; i++) {
+                        anterior += leerVarInt(entrada);
+                        ids[i] = anterior;
+                    }
+                    porTermino.put(termino, new ListaIds(ids));
+                }
+            }
+            return indice;
+        }
+    }
+
+    private int idDe(String numeroHistoria) {
+        Integer id = idsPorNumero.get(numeroHistoria);
+        if (id != null) {
+            return id;
+        }
+        synchronized (numeros) {
+            id = idsPorNumero.get(numeroHistoria);
+            if (id == null) {
+                id = numeros.size();
+                numeros.add(numeroHistoria);
+                idsPorNumero.put(numeroHistoria, id);
+            }
+            return id;
+        }
+    }
+
+    private Collection<ConcurrentSkipListMap<String, ListaIds>> mapasDe(TipoEntrada tipo) {
+        return tipo == null ? terminos.values() : List.of(terminos.get(tipo));
+    }
+
+    private List<String> numerosDe(BitSet ids) {
+        List<String> resultado = new ArrayList<>(ids.cardinality());
+        synchronized (numeros) {
+            for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                resultado.add(numeros.get(id));
+            }
+        }
+        return resultado;
+    }
+
+    // Indexa las entradas con id en (desde, hasta], dentro de una misma partición, y rehace sus marcas
+    private void indexarRango(EntityManagerFactory emf, long desde, long hasta) {
+        BitSet leidas = new BitSet();
+        EntityManager em = emf.createEntityManager();
+        try (Stream<Object[]> filas = em.createQuery(
+                        "SELECT e.id, h.numeroHistoria, e.tipo, e.texto FROM EntradaClinica e JOIN e.historiaClinica h"
+                                + " WHERE e.id > :desde AND e.id <= :hasta", Object[].class)
+                .setParameter("desde", desde)
+                .setParameter("hasta", hasta)
+                .getResultStream()) {
+            filas.forEach(fila -> {
+                indexar((String) fila[1], (TipoEntrada) fila[2], (String) fila[3]);
+                leidas.set((int) ((Long) fila[0] - desde - 1));
+            });
+        } finally {
+            em.close();
+        }
+        // Las marcas del rango quedan iguales a la base: se olvidan las entradas borradas
+        BitSet marcas = entradasIndexadas.computeIfAbsent(desde / TAMANIO_PARTICION, k -> new BitSet());
+        synchronized (marcas) {
+            marcas.clear(0, (int) (hasta - desde));
+            marcas.or(leidas);
+        }
+    }
+
+    // Si la base tiene en (desde, hasta] exactamente las entradas marcadas, comparando cantidad y suma de ids
+    private boolean completa(EntityManagerFactory emf, long desde, long hasta) {
+        Object[] resumen;
+        EntityManager em = emf.createEntityManager();
+        try {
+            resumen = em.createQuery("SELECT COUNT(e), COALESCE(SUM(e.id), 0) FROM EntradaClinica e"
+                            + " WHERE e.id > :desde AND e.id <= :hasta", Object[].class)
+                    .setParameter("desde", desde)
+                    .setParameter("hasta", hasta)
+                    .getSingleResult();
+        } finally {
+            em.close();
+        }
+        BitSet marcas = entradasIndexadas.get(desde / TAMANIO_PARTICION);
+        long cantidad = 0;
+        long suma = 0;
+        if (marcas != null) {
+            synchronized (marcas) {
+                for (int i = marcas.nextSetBit(0); i >= 0 && i < hasta - desde; i = marcas.nextSetBit(i + 1)) {
+                    cantidad++;
+                    suma += desde + i + 1;
+                }
+            }
+        }
+        return ((Number) resumen[0]).longValue() == cantidad && ((Number) resumen[1]).longValue() == suma;
+    }
+
+    private void marcar(Long idEntrada) {
+        if (idEntrada == null || idEntrada <= 0) {
+            return;
+        }
+        long indice = idEntrada - 1;
+        BitSet marcas = entradasIndexadas.computeIfAbsent(indice / TAMANIO_PARTICION, k -> new BitSet());
+        synchronized (marcas) {
+            marcas.set((int) (indice % TAMANIO_PARTICION));
+        }
+    }
+
+    private static void escribirVarInt(DataOutputStream salida, int valor) throws IOException {
+        while ((valor & ~0x7F) != 0) {
+            salida.writeByte((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        salida.writeByte(valor);
+    }
+
+    private static int leerVarInt(DataInputStream entrada) throws IOException {
+        int valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 32; desplazamiento += 7) {
+            int b = entrada.readUnsignedByte();
+            valor |= (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IOException("Entero variable mal formado en el índice clínico");
+    }
+
+    /**
+     * Ids de historia ordenados y sin repetir. Las altas llegan casi siempre en orden
+     * creciente y se agregan al final; las demás se insertan en su lugar.
+     */
+    private static final class ListaIds {
+        private int[] ids;
+        private int cantidad;
+
+        ListaIds() {
+            this.ids = new int[4];
+        }
+
+        ListaIds(int[] ids) {
+            this.ids = ids;
+            this.cantidad = ids.length;
+        }
+
+        synchronized void agregar(int id) {
+            if (cantidad > 0 && ids[cantidad - 1] >= id) {
+                int posicion = Arrays.binarySearch(ids, 0, cantidad, id);
+                if (posicion >= 0) {
+                    return;
+                }
+                asegurarCapacidad();
+                int insercion = -posicion - 1;
+                System.arraycopy(ids, insercion, ids, insercion + 1, cantidad - insercion);
+                ids[insercion] = id;
+            } else {
+                asegurarCapacidad();
+                ids[cantidad] = id;
+            }
+            cantidad++;
+        }
+
+        synchronized void agregarA(BitSet destino) {
+            for (int i = 0; i < cantidad; i++) {
+                destino.set(ids[i]);
+            }
+        }
+
+        // Ids menores que el límite, para no guardar historias ausentes del diccionario copiado
+        synchronized int[] copia(int limite) {
+            int hasta = Arrays.binarySearch(ids, 0, cantidad, limite);
+            return Arrays.copyOf(ids, hasta >= 0 ? hasta : -hasta - 1);
+        }
+
+        private void asegurarCapacidad() {
+            if (cantidad == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(4, ids.length * 2));
+            }
+        }
+    }
+}
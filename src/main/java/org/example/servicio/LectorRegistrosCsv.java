@@ -0,0 +1,117 @@
+package org.example.servicio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Lee uno a uno los registros de un archivo CSV de citas (ver {@link CitaCsvCodec}).
+ * <p>
+ * Un registro termina en '\n', "\r\n" o '\r' fuera de comillas. Los saltos de línea dentro de
+ * comillas se copian tal cual, sin normalizar, así que las observaciones vuelven idénticas a como
+ * se escribieron. Las líneas en blanco entre registros se saltean. Lee del {@link Reader} por
+ * bloques a un buffer propio y copia al destino los tramos entre comillas y saltos de línea de
+ * una vez. No debe compartirse entre hilos.
+ */
+public final class LectorRegistrosCsv implements Closeable {
+    private static final int TAMANIO_BUFFER_POR_DEFECTO = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer;
+    private int posicion;
+    private int limite;
+
+    public LectorRegistrosCsv(Reader reader) {
+        this(reader, TAMANIO_BUFFER_POR_DEFECTO);
+    }
+
+    public LectorRegistrosCsv(Reader reader, int tamanioBuffer) {
+        if (tamanioBuffer <= 0) {
+            throw new IllegalArgumentException("El tamaño del buffer debe ser positivo");
+        }
+        this.reader = reader;
+        this.buffer = new char[tamanioBuffer];
+    }
+
+    /**
+     * Lee el siguiente registro en {@code destino}, sin el salto de línea final. Devuelve la
+     * cantidad de líneas físicas consumidas, incluidas las salteadas, o 0 al llegar al final del
+     * archivo sin leer un registro.
+     */
+    public int leer(StringBuilder destino) throws IOException {
+        destino.setLength(0);
+        int lineas = 0;
+        boolean dentroDeComillas = false;
+        boolean lineaAbierta = false;
+        while (posicion < limite || llenar()) {
+            int inicio = posicion;
+            char c = 0;
+            while (posicion < limite) {
+                c = buffer[posicion];
+                if (c == '\n' || c == '\r') {
+                    break;
+                }
+                if (c == '"') {
+                    dentroDeComillas = !dentroDeComillas;
+                }
+                posicion++;
+            }
+            if (posicion > inicio) {
+                destino.append(buffer, inicio, posicion - inicio);
+                lineaAbierta = true;
+            }
+            if (posicion == limite) {
+                continue;
+            }
+
+            posicion++;
+            lineas++;
+            lineaAbierta = false;
+            boolean retornoYSalto = c == '\r' && (posicion < limite || llenar()) && buffer[posicion] == '\n';
+            if (retornoYSalto) {
+                posicion++;
+            }
+            if (dentroDeComillas) {
+                destino.append(c);
+                if (retornoYSalto) {
+                    destino.append('\n');
+                }
+                continue;
+            }
+            if (esBlanco(destino)) {
+                destino.setLength(0);
+                continue;
+            }
+            return lineas;
+        }
+        // Última línea sin salto final; con comillas sin cerrar, decodificar informa el error
+        if (esBlanco(destino)) {
+            return 0;
+        }
+        return lineaAbierta ? lineas + 1 : lineas;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private boolean llenar() throws IOException {
+        int leidos = reader.read(buffer, 0, buffer.length);
+        while (leidos == 0) {
+            leidos = reader.read(buffer, 0, buffer.length);
+        }
+        posicion = 0;
+        limite = Math.max(leidos, 0);
+        return leidos > 0;
+    }
+
+    private static boolean esBlanco(CharSequence registro) {
+        for (int i = 0; i < registro.length(); i++) {
+            if (!Character.isWhitespace(registro.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
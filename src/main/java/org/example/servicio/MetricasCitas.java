@@ -0,0 +1,110 @@
+package org.example.servicio;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Métricas de un {@link CitaService}: latencia por operación, rechazos por motivo e
+ * indicadores de tamaño registrados por la implementación. Sin dependencias externas.
+ */
+public class MetricasCitas {
+
+    public enum Operacion {
+        PROGRAMAR_CITA,
+        PROGRAMAR_CITAS,
+        CAMBIAR_ESTADO,
+        GUARDAR_CITAS,
+        CARGAR_CITAS
+    }
+
+    private final Map<Operacion, HistogramaLatencia> latencias = new EnumMap<>(Operacion.class);
+    private final Map<MotivoRechazo, LongAdder> rechazos = new EnumMap<>(MotivoRechazo.class);
+    private final Map<String, IntSupplier> indicadores = new ConcurrentHashMap<>();
+
+    public MetricasCitas() {
+        // Mapas completos desde el inicio: después sólo se leen, sin necesidad de sincronizar
+        for (Operacion operacion : Operacion.values()) {
+            latencias.put(operacion, new HistogramaLatencia());
+        }
+        for (MotivoRechazo motivo : MotivoRechazo.values()) {
+            rechazos.put(motivo, new LongAdder());
+        }
+    }
+
+    public void registrarLatencia(Operacion operacion, long nanos) {
+        latencias.get(operacion).registrar(nanos);
+    }
+
+    public void registrarRechazo(MotivoRechazo motivo) {
+        if (motivo != null) {
+            rechazos.get(motivo).increment();
+        }
+    }
+
+    public void registrarIndicador(String nombre, IntSupplier valor) {
+        indicadores.put(nombre, valor);
+    }
+
+    public Instantanea instantanea() {
+        Map<Operacion, HistogramaLatencia.ResumenLatencia> resumenes = new EnumMap<>(Operacion.class);
+        latencias.forEach((operacion, histograma) -> resumenes.put(operacion, histograma.resumen()));
+        Map<MotivoRechazo, Long> conteos = new EnumMap<>(MotivoRechazo.class);
+        rechazos.forEach((motivo, contador) -> conteos.put(motivo, contador.sum()));
+        Map<String, Integer> valores = new LinkedHashMap<>();
+        indicadores.forEach((nombre, valor) -> valores.put(nombre, valor.getAsInt()));
+        return new Instantanea(LocalDateTime.now(), Collections.unmodifiableMap(resumenes),
+                Collections.unmodifiableMap(conteos), Collections.unmodifiableMap(valores));
+    }
+
+    /**
+     * Vuelca una instantánea en texto cada {@code periodo} desde un hilo daemon propio.
+     * Cerrar el resultado detiene el volcado.
+     */
+    public AutoCloseable volcarPeriodicamente(Duration periodo, Consumer<String> destino) {
+        ScheduledExecutorService ejecutor = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "metricas-citas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        long milis = periodo.toMillis();
+        ejecutor.scheduleAtFixedRate(() -> destino.accept(instantanea().toString()), milis, milis, TimeUnit.MILLISECONDS);
+        return ejecutor::shutdownNow;
+    }
+
+    public record Instantanea(LocalDateTime fecha,
+                              Map<Operacion, HistogramaLatencia.ResumenLatencia> latencias,
+                              Map<MotivoRechazo, Long> rechazos,
+                              Map<String, Integer> indicadores) {
+
+        @Override
+        public String toString() {
+            StringBuilder texto = new StringBuilder("Métricas de citas al ").append(fecha).append('\n');
+            latencias.forEach((operacion, resumen) -> {
+                if (resumen.cantidad() > 0) {
+                    texto.append(String.format("  %s: n=%d media=%dus p50=%dus p99=%dus max=%dus%n",
+                            operacion, resumen.cantidad(), resumen.mediaNanos() / 1000,
+                            resumen.p50Nanos() / 1000, resumen.p99Nanos() / 1000, resumen.maximoNanos() / 1000));
+                }
+            });
+            rechazos.forEach((motivo, cantidad) -> {
+                if (cantidad > 0) {
+                    texto.append("  Rechazos ").append(motivo).append(": ").append(cantidad).append('\n');
+                }
+            });
+            indicadores.forEach((nombre, valor) ->
+                    texto.append("  ").append(nombre).append(": ").append(valor).append('\n'));
+            return texto.toString();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.servicio;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Query;
+import org.example.entidades.TipoEntrada;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Pasa a {@code entradas_clinicas} los diagnósticos, tratamientos y alergias de una base creada
+ * cuando la historia clínica los guardaba en tablas propias, como {@code data/hospidb}. Cada
+ * tabla vieja se copia con un único {@code INSERT ... SELECT} y luego se elimina, así que es
+ * idempotente y puede ejecutarse en cada arranque.
+ * <p>
+ * Las tablas viejas no guardaban fecha: las entradas copiadas toman la de creación de su
+ * historia y conservan entre sí el orden de lectura. Los ids se asignan por encima del mayor de
+ * {@code entradas_clinicas}, por lo que después debe correr {@link MigracionSecuencias} para
+ * adelantar la secuencia; {@link #main} hace ambas.
+ */
+public final class MigracionEntradasClinicas {
+    private static final List<TablaVieja> TABLAS = List.of(
+            new TablaVieja("diagnosticos", "diagnostico", TipoEntrada.DIAGNOSTICO),
+            new TablaVieja("tratamientos", "tratamiento", TipoEntrada.TRATAMIENTO),
+            new TablaVieja("alergias", "alergia", TipoEntrada.ALERGIA));
+
+    private record TablaVieja(String tabla, String columna, TipoEntrada tipo) {
+    }
+
+    private MigracionEntradasClinicas() {
+    }
+
+    // Migra la base del perfil actual (hospital.perfil / hospital.db.url)
+    public static void main(String[] args) {
+        EntityManagerFactory emf = PerfilPersistencia.actual().crearEntityManagerFactory();
+        try {
+            migrar(emf);
+            MigracionSecuencias.migrar(emf);
+        } finally {
+            emf.close();
+        }
+    }
+
+    /**
+     * Copia las tablas viejas que queden y devuelve la cantidad de entradas agregadas.
+     */
+    public static long migrar(EntityManagerFactory emf) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            if (!existe(em, "entradas_clinicas")) {
+                return 0;
+            }
+            long copiadas = 0;
+            for (TablaVieja tabla : TABLAS) {
+                copiadas += migrar(em, tabla);
+            }
+            return copiadas;
+        } finally {
+            em.close();
+        }
+    }
+
+    // H2 confirma la transacción abierta al ejecutar el DROP: la copia y el borrado quedan juntos
+    private static int migrar(EntityManager em, TablaVieja vieja) {
+        if (!existe(em, vieja.tabla())) {
+            return 0;
+        }
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            int copiadas = em.createNativeQuery("INSERT INTO entradas_clinicas"
+                            + " (id, historia_clinica_id, tipo, texto, fecha_registro)"
+                            + " SELECT (SELECT COALESCE(MAX(id), 0) FROM entradas_clinicas)"
+                            + " + ROW_NUMBER() OVER (ORDER BY v.historia_clinica_id), v.historia_clinica_id,"
+                            + " ?1, v." + vieja.columna() + ", h.fecha_creacion"
+                            + " FROM " + vieja.tabla() + " v JOIN historias_clinicas h ON h.id = v.historia_clinica_id"
+                            + " WHERE TRIM(v." + vieja.columna() + ") <> ''")
+                    .setParameter(1, vieja.tipo().name())
+                    .executeUpdate();
+            em.createNativeQuery("DROP TABLE " + vieja.tabla()).executeUpdate();
+            tx.commit();
+            return copiadas;
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        }
+    }
+
+    // H2 guarda los nombres sin comillas en mayúsculas
+    private static boolean existe(EntityManager em, String tabla) {
+        Query query = em.createNativeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = ?1")
+                .setParameter(1, tabla.toUpperCase(Locale.ROOT));
+        return ((Number) query.getSingleResult()).longValue() > 0;
+    }
+}
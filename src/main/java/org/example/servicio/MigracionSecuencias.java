@@ -0,0 +1,90 @@
+package org.example.servicio;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Query;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prepara las secuencias de ids sobre una base creada cuando las entidades usaban columnas
+ * IDENTITY, como {@code data/hospidb}: crea cada secuencia que falte y la adelanta por encima del
+ * mayor id de su tabla. Es idempotente y nunca retrocede una secuencia, por lo que puede
+ * ejecutarse en cada arranque; debe hacerse antes de cualquier alta.
+ * <p>
+ * Con el optimizador {@code pooled} de Hibernate, el valor que devuelve la secuencia es el último
+ * id del bloque de {@link #INCREMENTO} ids que reserva, de ahí que el mínimo sea
+ * {@code MAX(id) + INCREMENTO}.
+ */
+public final class MigracionSecuencias {
+    // Debe coincidir con el allocationSize de los @SequenceGenerator
+    public static final int INCREMENTO = 50;
+    private static final Map<String, String> SECUENCIAS = new LinkedHashMap<>();
+
+    static {
+        SECUENCIAS.put("hospitales", "hospitales_seq");
+        SECUENCIAS.put("departamentos", "departamentos_seq");
+        SECUENCIAS.put("salas", "salas_seq");
+        SECUENCIAS.put("medicos", "medicos_seq");
+        SECUENCIAS.put("pacientes", "pacientes_seq");
+        SECUENCIAS.put("historias_clinicas", "historias_clinicas_seq");
+        SECUENCIAS.put("entradas_clinicas", "entradas_clinicas_seq");
+        SECUENCIAS.put("citas", "citas_seq");
+    }
+
+    private MigracionSecuencias() {
+    }
+
+    // Migra la base del perfil actual (hospital.perfil / hospital.db.url)
+    public static void main(String[] args) {
+        EntityManagerFactory emf = PerfilPersistencia.actual().crearEntityManagerFactory();
+        try {
+            migrar(emf);
+        } finally {
+            emf.close();
+        }
+    }
+
+    public static void migrar(EntityManagerFactory emf) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            for (Map.Entry<String, String> entrada : SECUENCIAS.entrySet()) {
+                migrar(em, entrada.getKey(), entrada.getValue());
+            }
+            tx.commit();
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void migrar(EntityManager em, String tabla, String secuencia) {
+        if (valor(em, "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = ?1", tabla) == 0) {
+            return;
+        }
+        long minimo = valor(em, "SELECT COALESCE(MAX(id), 0) FROM " + tabla, null) + INCREMENTO;
+        em.createNativeQuery("CREATE SEQUENCE IF NOT EXISTS " + secuencia
+                + " START WITH " + minimo + " INCREMENT BY " + INCREMENTO).executeUpdate();
+        long actual = valor(em, "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?1", secuencia);
+        em.createNativeQuery("ALTER SEQUENCE " + secuencia + " RESTART WITH " + Math.max(actual, minimo)
+                + " INCREMENT BY " + INCREMENTO).executeUpdate();
+    }
+
+    // H2 guarda los nombres sin comillas en mayúsculas
+    private static long valor(EntityManager em, String sql, String nombre) {
+        Query query = em.createNativeQuery(sql);
+        if (nombre != null) {
+            query.setParameter(1, nombre.toUpperCase(Locale.ROOT));
+        }
+        return ((Number) query.getSingleResult()).longValue();
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.servicio;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+@Getter
+public enum MotivoRechazo {
+
+    FECHA_PASADA("No se puede programar una cita en el pasado."),
+
+
+    COSTO_INVALIDO("El costo debe ser mayor que cero."),
+
+
+    MEDICO_OCUPADO("El médico no está disponible en la fecha y hora solicitadas."),
+
+
+    SALA_OCUPADA("La sala no está disponible en la fecha y hora solicitadas."),
+
+
+    ESPECIALIDAD_INCOMPATIBLE("La especialidad del médico no coincide con el departamento de la sala."),
+
+
+    // Rechazos informados con una CitaException sin motivo
+    OTRO("La cita no pudo programarse.");
+
+
+    private final String mensaje;
+}
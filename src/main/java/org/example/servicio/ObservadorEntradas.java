@@ -0,0 +1,14 @@
+package org.example.servicio;
+
+import org.example.entidades.EntradaClinica;
+
+/**
+ * Recibe cada entrada agregada con {@link HistoriaClinicaService#agregarEntrada}, por ejemplo
+ * para mantener un índice de búsqueda. Se invoca en el hilo que agrega la entrada, después de
+ * confirmar la transacción que la insertó.
+ */
+@FunctionalInterface
+public interface ObservadorEntradas {
+
+    void entradaAgregada(String numeroHistoria, EntradaClinica entrada);
+}
@@ -0,0 +1,250 @@
+package org.example.servicio;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice de ocupación por recurso y día como mapa de bits de turnos fijos (por ejemplo de
+ * 5 minutos: 288 bits, 5 palabras {@code long} por día).
+ * <p>
+ * Una reserva marca todos los slots que toca, redondeando el inicio hacia abajo y el fin hacia
+ * arriba, por lo que el índice es conservador: si dice libre, está libre; si dice ocupado puede
+ * tratarse sólo de un slot compartido con el turno vecino. Consultas y reservas operan palabra a
+ * palabra y no reservan memoria salvo la primera vez que se usa un día.
+ */
+public class OcupacionRecursos {
+    private static final int MINUTOS_DIA = 24 * 60;
+    public static final int MINUTOS_POR_SLOT_POR_DEFECTO = 5;
+
+    private final int minutosPorSlot;
+    private final int slotsPorDia;
+    private final int palabrasPorDia;
+    private final Map<Object, Mapa> mapas = new ConcurrentHashMap<>();
+
+    public OcupacionRecursos() {
+        this(MINUTOS_POR_SLOT_POR_DEFECTO);
+    }
+
+    public OcupacionRecursos(int minutosPorSlot) {
+        if (minutosPorSlot <= 0 || MINUTOS_DIA % minutosPorSlot != 0) {
+            throw new IllegalArgumentException("Los minutos por slot deben dividir exactamente un día");
+        }
+        this.minutosPorSlot = minutosPorSlot;
+        this.slotsPorDia = MINUTOS_DIA / minutosPorSlot;
+        this.palabrasPorDia = (slotsPorDia + 63) >>> 6;
+    }
+
+    public boolean estaLibre(Object recurso, LocalDateTime inicio, LocalDateTime fin) {
+        Mapa mapa = mapas.get(recurso);
+        if (mapa == null) {
+            return true;
+        }
+        long primero = slotInicial(inicio);
+        long ultimo = slotFinal(fin);
+        synchronized (mapa) {
+            for (long dia = Math.floorDiv(primero, slotsPorDia); primero < ultimo; dia++) {
+                int desde = (int) (primero - dia * slotsPorDia);
+                int hasta = (int) Math.min(ultimo - dia * slotsPorDia, slotsPorDia);
+                long[] bits = mapa.dia(dia);
+                if (bits != null && !rangoLibre(bits, desde, hasta)) {
+                    return false;
+                }
+                primero = (dia + 1) * slotsPorDia;
+            }
+        }
+        return true;
+    }
+
+    public void reservar(Object recurso, LocalDateTime inicio, LocalDateTime fin) {
+        Mapa mapa = mapas.computeIfAbsent(recurso, r -> new Mapa());
+        marcar(mapa, inicio, fin, true);
+    }
+
+    public void liberar(Object recurso, LocalDateTime inicio, LocalDateTime fin) {
+        Mapa mapa = mapas.get(recurso);
+        if (mapa != null) {
+            marcar(mapa, inicio, fin, false);
+        }
+    }
+
+    /**
+     * Primer inicio alineado a slot, a partir de {@code desde} y dentro de ese mismo día, en que
+     * el recurso está libre durante {@code duracion}; {@code null} si no queda hueco ese día.
+     */
+    public LocalDateTime primerLibreDelDia(Object recurso, LocalDateTime desde, Duration duracion) {
+        long slotDesde = slotInicial(desde);
+        if (desde.isAfter(aFecha(slotDesde))) {
+            slotDesde++;
+        }
+        long dia = Math.floorDiv(slotInicial(desde), slotsPorDia);
+        int inicioDia = (int) (slotDesde - dia * slotsPorDia);
+        int largo = (int) ((duracion.toMinutes() + minutosPorSlot - 1) / minutosPorSlot);
+        if (largo <= 0 || inicioDia + largo > slotsPorDia) {
+            return null;
+        }
+
+        Mapa mapa = mapas.get(recurso);
+        if (mapa == null) {
+            return aFecha(dia * slotsPorDia + inicioDia);
+        }
+        synchronized (mapa) {
+            long[] bits = mapa.dia(dia);
+            if (bits == null) {
+                return aFecha(dia * slotsPorDia + inicioDia);
+            }
+            int slot = inicioDia;
+            while (slot + largo <= slotsPorDia) {
+                int ocupado = siguienteBit(bits, slot, true);
+                if (ocupado - slot >= largo) {
+                    return aFecha(dia * slotsPorDia + slot);
+                }
+                slot = siguienteBit(bits, ocupado, false);
+            }
+        }
+        return null;
+    }
+
+    public int getMinutosPorSlot() {
+        return minutosPorSlot;
+    }
+
+    private void marcar(Mapa mapa, LocalDateTime inicio, LocalDateTime fin, boolean ocupar) {
+        long primero = slotInicial(inicio);
+        long ultimo = slotFinal(fin);
+        synchronized (mapa) {
+            for (long dia = Math.floorDiv(primero, slotsPorDia); primero < ultimo; dia++) {
+                int desde = (int) (primero - dia * slotsPorDia);
+                int hasta = (int) Math.min(ultimo - dia * slotsPorDia, slotsPorDia);
+                long[] bits = ocupar ? mapa.diaParaEscribir(dia, palabrasPorDia) : mapa.dia(dia);
+                if (bits != null) {
+                    marcarRango(bits, desde, hasta, ocupar);
+                }
+                primero = (dia + 1) * slotsPorDia;
+            }
+        }
+    }
+
+    private long slotInicial(LocalDateTime fecha) {
+        return Math.floorDiv(minutosEpoch(fecha), minutosPorSlot);
+    }
+
+    private long slotFinal(LocalDateTime fecha) {
+        // Un fin con segundos ocupa también el minuto en curso
+        long minutos = minutosEpoch(fecha) + (fecha.getSecond() > 0 || fecha.getNano() > 0 ? 1 : 0);
+        return Math.floorDiv(minutos + minutosPorSlot - 1, minutosPorSlot);
+    }
+
+    private static long minutosEpoch(LocalDateTime fecha) {
+        return fecha.toLocalDate().toEpochDay() * MINUTOS_DIA + fecha.getHour() * 60L + fecha.getMinute();
+    }
+
+    private LocalDateTime aFecha(long slot) {
+        long minutos = slot * minutosPorSlot;
+        return LocalDate.ofEpochDay(Math.floorDiv(minutos, MINUTOS_DIA)).atStartOfDay()
+                .plusMinutes(Math.floorMod(minutos, MINUTOS_DIA));
+    }
+
+    private static boolean rangoLibre(long[] bits, int desde, int hasta) {
+        if (desde >= hasta) {
+            return true;
+        }
+        int primera = desde >>> 6;
+        int ultima = (hasta - 1) >>> 6;
+        long mascaraInicial = -1L << desde;
+        long mascaraFinal = -1L >>> -hasta;
+        if (primera == ultima) {
+            return (bits[primera] & mascaraInicial & mascaraFinal) == 0;
+        }
+        if ((bits[primera] & mascaraInicial) != 0) {
+            return false;
+        }
+        for (int i = primera + 1; i < ultima; i++) {
+            if (bits[i] != 0) {
+                return false;
+            }
+        }
+        return (bits[ultima] & mascaraFinal) == 0;
+    }
+
+    private static void marcarRango(long[] bits, int desde, int hasta, boolean ocupar) {
+        if (desde >= hasta) {
+            return;
+        }
+        int primera = desde >>> 6;
+        int ultima = (hasta - 1) >>> 6;
+        long mascaraInicial = -1L << desde;
+        long mascaraFinal = -1L >>> -hasta;
+        for (int i = primera; i <= ultima; i++) {
+            long mascara = -1L;
+            if (i == primera) {
+                mascara &= mascaraInicial;
+            }
+            if (i == ultima) {
+                mascara &= mascaraFinal;
+            }
+            bits[i] = ocupar ? bits[i] | mascara : bits[i] & ~mascara;
+        }
+    }
+
+    // Próximo slot >= desde con el bit en el valor buscado, o slotsPorDia si no hay
+    private int siguienteBit(long[] bits, int desde, boolean ocupado) {
+        if (desde >= slotsPorDia) {
+            return slotsPorDia;
+        }
+        int palabra = desde >>> 6;
+        long valor = (ocupado ? bits[palabra] : ~bits[palabra]) & (-1L << desde);
+        while (valor == 0) {
+            if (++palabra == bits.length) {
+                return slotsPorDia;
+            }
+            valor = ocupado ? bits[palabra] : ~bits[palabra];
+        }
+        return Math.min((palabra << 6) + Long.numberOfTrailingZeros(valor), slotsPorDia);
+    }
+
+    /**
+     * Días de un recurso en un arreglo contiguo indexado desde el primer día usado; crece por
+     * cualquiera de los dos extremos.
+     */
+    private static final class Mapa {
+        private long diaBase;
+        private long[][] dias = new long[0][];
+
+        long[] dia(long dia) {
+            long indice = dia - diaBase;
+            if (indice < 0 || indice >= dias.length) {
+                return null;
+            }
+            return dias[(int) indice];
+        }
+
+        long[] diaParaEscribir(long dia, int palabras) {
+            if (dias.length == 0) {
+                diaBase = dia;
+                dias = new long[8][];
+            } else if (dia < diaBase) {
+                int faltan = (int) (diaBase - dia);
+                long[][] nuevos = new long[Math.max(dias.length * 2, dias.length + faltan)][];
+                int corrimiento = nuevos.length - dias.length;
+                System.arraycopy(dias, 0, nuevos, corrimiento, dias.length);
+                dias = nuevos;
+                diaBase -= corrimiento;
+            } else if (dia - diaBase >= dias.length) {
+                int necesarios = (int) (dia - diaBase + 1);
+                long[][] nuevos = new long[Math.max(dias.length * 2, necesarios)][];
+                System.arraycopy(dias, 0, nuevos, 0, dias.length);
+                dias = nuevos;
+            }
+            int indice = (int) (dia - diaBase);
+            long[] bits = dias[indice];
+            if (bits == null) {
+                bits = new long[palabras];
+                dias[indice] = bits;
+            }
+            return bits;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.servicio;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Configuración de la unidad de persistencia según el entorno, elegida con la propiedad de
+ * sistema {@code hospital.perfil} ({@code dev}, {@code test} o {@code prod}; por defecto
+ * {@code dev}). La URL de la base puede reemplazarse con {@code hospital.db.url}.
+ * <ul>
+ *     <li>dev: base en archivo, esquema actualizado al arrancar y SQL formateado en consola.</li>
+ *     <li>test: base en memoria recreada en cada arranque, sin eco de SQL.</li>
+ *     <li>prod: pool HikariCP, caché de sentencias preparadas en H2, lotes y fetch size
+ *     ajustados, sin eco de SQL ni comparación de esquema (debe existir de antemano).</li>
+ * </ul>
+ */
+public enum PerfilPersistencia {
+    DEV("jdbc:h2:file:./data/hospidb;DB_CLOSE_ON_EXIT=FALSE", "") {
+        @Override
+        void configurar(Map<String, Object> propiedades) {
+            propiedades.put("hibernate.hbm2ddl.auto", "update");
+            propiedades.put("hibernate.show_sql", "true");
+            propiedades.put("hibernate.format_sql", "true");
+        }
+    },
+    TEST("jdbc:h2:mem:hospidb;DB_CLOSE_DELAY=-1", "") {
+        @Override
+        void configurar(Map<String, Object> propiedades) {
+            propiedades.put("hibernate.hbm2ddl.auto", "create-drop");
+            propiedades.put("hibernate.show_sql", "false");
+            propiedades.put("hibernate.format_sql", "false");
+        }
+    },
+    PROD("jdbc:h2:file:./data/hospidb;DB_CLOSE_ON_EXIT=FALSE", ";QUERY_CACHE_SIZE=64") {
+        @Override
+        void configurar(Map<String, Object> propiedades) {
+            propiedades.put("hibernate.hbm2ddl.auto", "none");
+            propiedades.put("hibernate.show_sql", "false");
+            propiedades.put("hibernate.format_sql", "false");
+
+            propiedades.put("hibernate.connection.provider_class",
+                    "org.hibernate.hikaricp.internal.HikariCPConnectionProvider");
+            propiedades.put("hibernate.hikari.poolName", "hospital");
+            propiedades.put("hibernate.hikari.maximumPoolSize", "16");
+            propiedades.put("hibernate.hikari.minimumIdle", "4");
+            propiedades.put("hibernate.hikari.connectionTimeout", "5000");
+
+            propiedades.put("hibernate.jdbc.batch_size", "50");
+            propiedades.put("hibernate.jdbc.fetch_size", "200");
+            propiedades.put("hibernate.query.plan_cache_max_size", "512");
+            propiedades.put("hibernate.generate_statistics", "false");
+        }
+    };
+
+    public static final String PROPIEDAD_PERFIL = "hospital.perfil";
+    public static final String PROPIEDAD_URL = "hospital.db.url";
+    private static final String UNIDAD = "hospital-persistence-unit";
+
+    private final String urlPorDefecto;
+    // Opciones de H2 que el perfil agrega a cualquier URL
+    private final String opcionesUrl;
+
+    PerfilPersistencia(String urlPorDefecto, String opcionesUrl) {
+        this.urlPorDefecto = urlPorDefecto;
+        this.opcionesUrl = opcionesUrl;
+    }
+
+    abstract void configurar(Map<String, Object> propiedades);
+
+    public static PerfilPersistencia actual() {
+        String nombre = System.getProperty(PROPIEDAD_PERFIL, "dev");
+        try {
+            return valueOf(nombre.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Perfil de persistencia desconocido: " + nombre, e);
+        }
+    }
+
+    public Map<String, Object> propiedades() {
+        return propiedades(System.getProperty(PROPIEDAD_URL, urlPorDefecto));
+    }
+
+    public Map<String, Object> propiedades(String url) {
+        Map<String, Object> propiedades = new HashMap<>();
+        propiedades.put("jakarta.persistence.jdbc.url", url + opcionesUrl);
+        configurar(propiedades);
+        return propiedades;
+    }
+
+    public EntityManagerFactory crearEntityManagerFactory() {
+        return Persistence.createEntityManagerFactory(UNIDAD, propiedades());
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.servicio;
+
+import org.example.entidades.Cita;
+
+/**
+ * Resultado de una solicitud dentro de un lote: la cita creada o el motivo del rechazo.
+ */
+public record ResultadoCita(SolicitudCita solicitud, Cita cita, MotivoRechazo motivo) {
+
+    public static ResultadoCita aceptada(SolicitudCita solicitud, Cita cita) {
+        return new ResultadoCita(solicitud, cita, null);
+    }
+
+    public static ResultadoCita rechazada(SolicitudCita solicitud, MotivoRechazo motivo) {
+        return new ResultadoCita(solicitud, null, motivo);
+    }
+
+    public boolean isAceptada() {
+        return cita != null;
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.servicio;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Resumen de una importación masiva: filas leídas, filas persistidas, errores por fila y tiempo
+ * total, incluidas lectura, validación y escritura.
+ */
+public record ResultadoImportacion(int filasLeidas, int importadas, List<ErrorImportacion> errores,
+                                   Duration duracion) {
+
+    public ResultadoImportacion {
+        errores = List.copyOf(errores);
+    }
+
+    public double filasPorSegundo() {
+        long nanos = duracion.toNanos();
+        return nanos == 0 ? 0 : filasLeidas * 1_000_000_000.0 / nanos;
+    }
+}
@@ -0,0 +1,195 @@
+package org.example.servicio;
+
+import org.example.entidades.Cita;
+import org.example.entidades.EstadoCita;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Sala;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Formato binario compacto del estado de {@link CitaManager}.
+ * <p>
+ * Cabecera: mágico, versión, cantidad de citas. Luego un registro de ancho fijo por cita
+ * (ids de paciente, médico y sala, minutos desde epoch en UTC, costo en centavos,
+ * ordinal del estado y desplazamiento de las observaciones) y al final la zona de textos,
+ * con cada observación como largo + bytes UTF-8. Los segundos de la fecha se descartan.
+ */
+final class SnapshotCitas {
+    private static final int MAGICO = 0x48435331; // "HCS1"
+    private static final int VERSION = 1;
+    private static final int TAMANIO_CABECERA = 4 + 4 + 8;
+    private static final int TAMANIO_REGISTRO = 8 + 8 + 8 + 8 + 8 + 4 + 4;
+    private static final int SIN_OBSERVACIONES = -1;
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+
+    private SnapshotCitas() {
+    }
+
+    static void escribir(Collection<Cita> citas, Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANIO_BUFFER);
+            buffer.putInt(MAGICO).putInt(VERSION).putLong(citas.size());
+
+            // Primera pasada: registros fijos, calculando dónde quedará cada observación
+            int desplazamiento = 0;
+            for (Cita cita : citas) {
+                if (buffer.remaining() < TAMANIO_REGISTRO) {
+                    volcar(canal, buffer);
+                }
+                buffer.putLong(idDe(cita.getPaciente().getId(), cita))
+                        .putLong(idDe(cita.getMedico().getId(), cita))
+                        .putLong(idDe(cita.getSala().getId(), cita))
+                        .putLong(cita.getFechaHora().toEpochSecond(ZoneOffset.UTC) / 60)
+                        .putLong(centavos(cita.getCosto()))
+                        .putInt(cita.getEstado().ordinal());
+                String observaciones = cita.getObservaciones();
+                if (observaciones == null || observaciones.isEmpty()) {
+                    buffer.putInt(SIN_OBSERVACIONES);
+                } else {
+                    buffer.putInt(desplazamiento);
+                    desplazamiento = Math.addExact(desplazamiento,
+                            4 + observaciones.getBytes(StandardCharsets.UTF_8).length);
+                }
+            }
+
+            // Segunda pasada: zona de textos
+            for (Cita cita : citas) {
+                String observaciones = cita.getObservaciones();
+                if (observaciones == null || observaciones.isEmpty()) {
+                    continue;
+                }
+                byte[] bytes = observaciones.getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < 4) {
+                    volcar(canal, buffer);
+                }
+                buffer.putInt(bytes.length);
+                int escritos = 0;
+                while (escritos < bytes.length) {
+                    if (!buffer.hasRemaining()) {
+                        volcar(canal, buffer);
+                    }
+                    int cantidad = Math.min(buffer.remaining(), bytes.length - escritos);
+                    buffer.put(bytes, escritos, cantidad);
+                    escritos += cantidad;
+                }
+            }
+            volcar(canal, buffer);
+        }
+    }
+
+    static void leer(Path archivo, Map<Long, Paciente> pacientes, Map<Long, Medico> medicos,
+                     Map<Long, Sala> salas, Consumer<Cita> destino) throws IOException, CitaException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamanio = canal.size();
+            if (tamanio > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot demasiado grande para mapearse en memoria: " + tamanio + " bytes");
+            }
+            MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanio);
+            if (tamanio < TAMANIO_CABECERA || mapa.getInt(0) != MAGICO) {
+                throw new IOException("El archivo no es un snapshot de citas: " + archivo);
+            }
+            if (mapa.getInt(4) != VERSION) {
+                throw new IOException("Versión de snapshot no soportada: " + mapa.getInt(4));
+            }
+            long cantidad = mapa.getLong(8);
+            if (cantidad < 0 || cantidad > (tamanio - TAMANIO_CABECERA) / TAMANIO_REGISTRO) {
+                throw new IOException("Snapshot truncado: " + archivo);
+            }
+            long inicioTextos = TAMANIO_CABECERA + cantidad * TAMANIO_REGISTRO;
+
+            EstadoCita[] estados = EstadoCita.values();
+            for (long i = 0; i < cantidad; i++) {
+                int posicion = (int) (TAMANIO_CABECERA + i * TAMANIO_REGISTRO);
+                long idPaciente = mapa.getLong(posicion);
+                long idMedico = mapa.getLong(posicion + 8);
+                long idSala = mapa.getLong(posicion + 16);
+                long minutos = mapa.getLong(posicion + 24);
+                long costo = mapa.getLong(posicion + 32);
+                int estado = mapa.getInt(posicion + 40);
+                int observaciones = mapa.getInt(posicion + 44);
+
+                Paciente paciente = pacientes.get(idPaciente);
+                Medico medico = medicos.get(idMedico);
+                Sala sala = salas.get(idSala);
+                if (paciente == null) {
+                    throw new CitaException("Paciente no encontrado: " + idPaciente);
+                }
+                if (medico == null) {
+                    throw new CitaException("Médico no encontrado: " + idMedico);
+                }
+                if (sala == null) {
+                    throw new CitaException("Sala no encontrada: " + idSala);
+                }
+                if (estado < 0 || estado >= estados.length) {
+                    throw new CitaException("Estado de cita inválido en el snapshot: " + estado);
+                }
+
+                destino.accept(Cita.builder()
+                        .paciente(paciente)
+                        .medico(medico)
+                        .sala(sala)
+                        .fechaHora(LocalDateTime.ofEpochSecond(minutos * 60, 0, ZoneOffset.UTC))
+                        .costo(BigDecimal.valueOf(costo, 2))
+                        .estado(estados[estado])
+                        .observaciones(leerTexto(mapa, inicioTextos, observaciones, archivo))
+                        .build());
+            }
+        }
+    }
+
+    // Desplazamiento y largo vienen del archivo: se validan antes de leer para informar la corrupción
+    private static String leerTexto(MappedByteBuffer mapa, long inicioTextos, int desplazamiento, Path archivo)
+            throws IOException {
+        if (desplazamiento == SIN_OBSERVACIONES) {
+            return "";
+        }
+        long limite = mapa.limit();
+        if (desplazamiento < 0 || inicioTextos + desplazamiento + 4 > limite) {
+            throw new IOException("Desplazamiento de observaciones fuera del snapshot (" + desplazamiento + "): "
+                    + archivo);
+        }
+        int posicion = (int) (inicioTextos + desplazamiento);
+        int largo = mapa.getInt(posicion);
+        if (largo < 0 || posicion + 4L + largo > limite) {
+            throw new IOException("Observaciones truncadas en el snapshot (largo " + largo + "): " + archivo);
+        }
+        byte[] bytes = new byte[largo];
+        mapa.get(posicion + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long idDe(Long id, Cita cita) {
+        if (id == null) {
+            throw new IllegalStateException("El snapshot requiere entidades persistidas: " + cita);
+        }
+        return id;
+    }
+
+    private static long centavos(BigDecimal costo) {
+        return costo.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static void volcar(FileChannel canal, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+}
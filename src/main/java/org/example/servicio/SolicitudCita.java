@@ -0,0 +1,21 @@
+package org.example.servicio;
+
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Sala;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+public record SolicitudCita(Paciente paciente, Medico medico, Sala sala,
+                            LocalDateTime fechaHora, BigDecimal costo) {
+
+    public SolicitudCita {
+        Objects.requireNonNull(paciente, "El paciente no puede ser nulo");
+        Objects.requireNonNull(medico, "El médico no puede ser nulo");
+        Objects.requireNonNull(sala, "La sala no puede ser nula");
+        Objects.requireNonNull(fechaHora, "La fecha y hora no pueden ser nulas");
+        Objects.requireNonNull(costo, "El costo no puede ser nulo");
+    }
+}
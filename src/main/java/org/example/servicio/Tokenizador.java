@@ -0,0 +1,66 @@
+package org.example.servicio;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Separa texto clínico en términos de búsqueda: minúsculas, sin tildes ni diéresis
+ * ("Penicilina", "penicilína" y "PENICILINA" dan el mismo término) y sin palabras vacías.
+ */
+final class Tokenizador {
+    private static final int LARGO_MINIMO = 2;
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "de", "del", "la", "las", "el", "los", "y", "o", "en", "con", "sin", "por", "para", "a", "al",
+            "un", "una", "se");
+
+    private Tokenizador() {
+    }
+
+    static List<String> terminos(String texto) {
+        List<String> terminos = new ArrayList<>();
+        if (texto == null) {
+            return terminos;
+        }
+        String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder actual = new StringBuilder();
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char c = descompuesto.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                actual.append(c);
+            } else {
+                agregar(terminos, actual);
+            }
+        }
+        agregar(terminos, actual);
+        return terminos;
+    }
+
+    // Normaliza un prefijo de búsqueda igual que los términos, sin descartarlo por corto
+    static String normalizar(String texto) {
+        String descompuesto = Normalizer.normalize(texto.trim(), Normalizer.Form.NFD);
+        StringBuilder normalizado = new StringBuilder(descompuesto.length());
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char c = descompuesto.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                normalizado.append(c);
+            }
+        }
+        return normalizado.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static void agregar(List<String> terminos, StringBuilder actual) {
+        if (actual.length() >= LARGO_MINIMO) {
+            String termino = actual.toString().toLowerCase(Locale.ROOT);
+            if (!PALABRAS_VACIAS.contains(termino)) {
+                terminos.add(termino);
+            }
+        }
+        actual.setLength(0);
+    }
+}
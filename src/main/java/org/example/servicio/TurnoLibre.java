@@ -0,0 +1,9 @@
+package org.example.servicio;
+
+import org.example.entidades.Medico;
+import org.example.entidades.Sala;
+
+import java.time.LocalDateTime;
+
+public record TurnoLibre(Medico medico, Sala sala, LocalDateTime inicio, LocalDateTime fin) {
+}
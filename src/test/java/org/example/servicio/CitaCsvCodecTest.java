@@ -0,0 +1,187 @@
+package org.example.servicio;
+
+import org.example.entidades.Cita;
+import org.example.entidades.Departamento;
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.EstadoCita;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Sala;
+import org.example.entidades.TipoSangre;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Ida y vuelta de {@link CitaCsvCodec} con {@link LectorRegistrosCsv} y
+ * {@link CargadorParaleloCitas}: citas aleatorias con comas, comillas, punto y coma y saltos de
+ * línea de los tres tipos en los textos, fechas con y sin segundos o nanosegundos y costos fuera
+ * del camino rápido deben volver idénticas.
+ */
+class CitaCsvCodecTest {
+    private static final int CITAS_ALEATORIAS = 100_000;
+    private static final String ALFABETO = "abcxyz ÁéñÜ019,;\"\n\r\t";
+
+    private final CitaCsvCodec codec = new CitaCsvCodec();
+    private Paciente paciente;
+    private Medico medico;
+    private Sala sala;
+    private Map<String, Paciente> pacientes;
+    private Map<String, Medico> medicos;
+    private Map<String, Sala> salas;
+
+    @BeforeEach
+    void preparar() {
+        Departamento departamento = Departamento.builder()
+                .nombre("Neurología")
+                .especialidad(EspecialidadMedica.NEUROLOGIA)
+                .build();
+        medico = Medico.builder()
+                .nombre("Medico")
+                .apellido("Prueba")
+                .dni("10000001")
+                .fechaNacimiento(LocalDate.of(1975, 1, 1))
+                .tipoSangre(TipoSangre.A_POSITIVO)
+                .numeroMatricula("MP-100001")
+                .especialidad(EspecialidadMedica.NEUROLOGIA)
+                .build();
+        departamento.agregarMedico(medico);
+        sala = departamento.crearSala("N-1", "Consultorio");
+        paciente = Paciente.builder()
+                .nombre("Paciente")
+                .apellido("Prueba")
+                .dni("20000001")
+                .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                .tipoSangre(TipoSangre.O_POSITIVO)
+                .telefono("011-0000-0000")
+                .direccion("Calle 1")
+                .build();
+        pacientes = Map.of(paciente.getDni(), paciente);
+        medicos = Map.of(medico.getDni(), medico);
+        salas = Map.of(sala.getNumero(), sala);
+    }
+
+    @Test
+    void codificarYDecodificarDevuelvenLaMismaCita() throws CitaException {
+        Random random = new Random(42);
+        for (int i = 0; i < CITAS_ALEATORIAS; i++) {
+            Cita original = citaAleatoria(random);
+            assertIguales(original, codec.decodificar(codec.codificar(original).toString(), pacientes, medicos, salas));
+        }
+    }
+
+    @Test
+    void elLectorConservaLosSaltosDeLineaEntreComillas() throws IOException, CitaException {
+        List<Cita> citas = citasAleatorias(new Random(7));
+        LectorRegistrosCsv lector = new LectorRegistrosCsv(new StringReader(escribir(citas)), 100);
+        StringBuilder registro = new StringBuilder();
+        int leidas = 0;
+        while (lector.leer(registro) > 0) {
+            assertIguales(citas.get(leidas++), codec.decodificar(registro, pacientes, medicos, salas));
+        }
+        assertEquals(citas.size(), leidas);
+    }
+
+    @Test
+    void elLectorAceptaLosTresFinesDeLineaYSalteaLineasEnBlanco() throws IOException {
+        String archivo = "a,\"x\r\ny\"\r\n\n  \rb,\"\r\"\rc\n\"z\n";
+        LectorRegistrosCsv lector = new LectorRegistrosCsv(new StringReader(archivo), 3);
+        StringBuilder registro = new StringBuilder();
+
+        assertEquals(2, lector.leer(registro));
+        assertEquals("a,\"x\r\ny\"", registro.toString());
+        assertEquals(4, lector.leer(registro));
+        assertEquals("b,\"\r\"", registro.toString());
+        assertEquals(1, lector.leer(registro));
+        assertEquals("c", registro.toString());
+        // Comillas sin cerrar al final: se devuelve lo leído y decodificar informa el error
+        assertEquals(1, lector.leer(registro));
+        assertEquals("\"z\n", registro.toString());
+        assertEquals(0, lector.leer(registro));
+    }
+
+    @Test
+    void laCargaParalelaLeeLoMismoQueLaSecuencial(@TempDir Path directorio) throws IOException, CitaException {
+        List<Cita> citas = citasAleatorias(new Random(11));
+        Path archivo = directorio.resolve("citas.csv");
+        Files.writeString(archivo, escribir(citas), StandardCharsets.UTF_8);
+
+        // Bloques chicos para que muchos límites caigan dentro de registros y de comillas
+        List<Cita> leidas = new ArrayList<>();
+        for (CargadorParaleloCitas.Bloque bloque : new CargadorParaleloCitas(archivo, pacientes, medicos, salas,
+                ForkJoinPool.commonPool(), 4096).cargar()) {
+            leidas.addAll(bloque.citas);
+        }
+        assertEquals(citas.size(), leidas.size());
+        for (int i = 0; i < citas.size(); i++) {
+            assertIguales(citas.get(i), leidas.get(i));
+        }
+    }
+
+    private List<Cita> citasAleatorias(Random random) {
+        List<Cita> citas = new ArrayList<>(CITAS_ALEATORIAS);
+        for (int i = 0; i < CITAS_ALEATORIAS; i++) {
+            citas.add(citaAleatoria(random));
+        }
+        return citas;
+    }
+
+    private String escribir(List<Cita> citas) throws IOException {
+        StringWriter archivo = new StringWriter();
+        for (Cita cita : citas) {
+            codec.escribir(cita, archivo);
+        }
+        return archivo.toString();
+    }
+
+    private Cita citaAleatoria(Random random) {
+        StringBuilder observaciones = new StringBuilder();
+        for (int i = random.nextInt(20); i > 0; i--) {
+            observaciones.append(ALFABETO.charAt(random.nextInt(ALFABETO.length())));
+        }
+        LocalDateTime fechaHora = LocalDateTime.of(1900 + random.nextInt(200), 1 + random.nextInt(12),
+                1 + random.nextInt(28), random.nextInt(24), random.nextInt(60),
+                random.nextInt(3) == 0 ? random.nextInt(60) : 0,
+                random.nextInt(10) == 0 ? random.nextInt(1_000_000_000) : 0);
+        BigDecimal costo = random.nextInt(20) == 0
+                ? new BigDecimal("1234567890123456789012.5")
+                : BigDecimal.valueOf(random.nextLong() % 100_000_000L, random.nextInt(4));
+        return Cita.builder()
+                .paciente(paciente)
+                .medico(medico)
+                .sala(sala)
+                .fechaHora(fechaHora)
+                .costo(costo)
+                .estado(EstadoCita.values()[random.nextInt(EstadoCita.values().length)])
+                .observaciones(observaciones.toString())
+                .build();
+    }
+
+    private static void assertIguales(Cita esperada, Cita leida) {
+        assertSame(esperada.getPaciente(), leida.getPaciente());
+        assertSame(esperada.getMedico(), leida.getMedico());
+        assertSame(esperada.getSala(), leida.getSala());
+        assertEquals(esperada.getFechaHora(), leida.getFechaHora());
+        assertEquals(esperada.getCosto(), leida.getCosto());
+        assertEquals(esperada.getEstado(), leida.getEstado());
+        assertEquals(esperada.getObservaciones(), leida.getObservaciones());
+    }
+}
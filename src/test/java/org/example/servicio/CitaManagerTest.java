@@ -0,0 +1,150 @@
+package org.example.servicio;
+
+import org.example.entidades.Cita;
+import org.example.entidades.Departamento;
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.EstadoCita;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Sala;
+import org.example.entidades.TipoSangre;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link CitaManager#cargarCitasEnParalelo} deja las citas, los índices por paciente, médico y
+ * sala y las agendas igual que {@link CitaManager#cargarCitas}, incluso con muchos bloques y con
+ * citas repetidas en el mismo turno.
+ */
+class CitaManagerTest {
+    private static final int CITAS = 20_000;
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+    private final List<Paciente> pacientes = new ArrayList<>();
+    private final List<Medico> medicos = new ArrayList<>();
+    private final List<Sala> salas = new ArrayList<>();
+    private final Map<String, Paciente> pacientesPorDni = new HashMap<>();
+    private final Map<String, Medico> medicosPorDni = new HashMap<>();
+    private final Map<String, Sala> salasPorNumero = new HashMap<>();
+
+    @BeforeEach
+    void preparar() {
+        Departamento departamento = Departamento.builder()
+                .nombre("Clínica")
+                .especialidad(EspecialidadMedica.MEDICINA_GENERAL)
+                .build();
+        for (int i = 0; i < 7; i++) {
+            Medico medico = Medico.builder()
+                    .nombre("Medico" + i)
+                    .apellido("Prueba")
+                    .dni(String.valueOf(10_000_000 + i))
+                    .fechaNacimiento(LocalDate.of(1975, 1, 1))
+                    .tipoSangre(TipoSangre.A_POSITIVO)
+                    .numeroMatricula("MP-" + (100_000 + i))
+                    .especialidad(EspecialidadMedica.MEDICINA_GENERAL)
+                    .build();
+            departamento.agregarMedico(medico);
+            medicos.add(medico);
+            medicosPorDni.put(medico.getDni(), medico);
+            Sala sala = departamento.crearSala("S-" + i, "Consultorio");
+            salas.add(sala);
+            salasPorNumero.put(sala.getNumero(), sala);
+        }
+        for (int i = 0; i < 31; i++) {
+            Paciente paciente = Paciente.builder()
+                    .nombre("Paciente" + i)
+                    .apellido("Prueba")
+                    .dni(String.valueOf(20_000_000 + i))
+                    .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                    .tipoSangre(TipoSangre.O_POSITIVO)
+                    .telefono("011-0000-0000")
+                    .direccion("Calle " + i)
+                    .build();
+            pacientes.add(paciente);
+            pacientesPorDni.put(paciente.getDni(), paciente);
+        }
+    }
+
+    @Test
+    void laCargaParalelaConservaElOrdenDeLaSecuencial(@TempDir Path directorio) throws Exception {
+        Path archivo = directorio.resolve("citas.csv");
+        escribirCitas(archivo, new Random(3));
+
+        CitaManager secuencial = new CitaManager();
+        secuencial.cargarCitas(archivo.toString(), pacientesPorDni, medicosPorDni, salasPorNumero);
+        CitaManager paralelo = new CitaManager();
+        // Bloques chicos para que el archivo se reparta entre muchas tareas
+        paralelo.cargarCitasEnParalelo(archivo.toString(), pacientesPorDni, medicosPorDni, salasPorNumero,
+                ForkJoinPool.commonPool(), 4096);
+
+        assertEquals(CITAS, secuencial.citasEnOrden().size());
+        assertEquals(codificadas(secuencial.citasEnOrden()), codificadas(paralelo.citasEnOrden()));
+        for (Paciente paciente : pacientes) {
+            assertEquals(codificadas(secuencial.getCitasPorPaciente(paciente)),
+                    codificadas(paralelo.getCitasPorPaciente(paciente)));
+        }
+        LocalDateTime hasta = BASE.plusYears(10);
+        for (Medico medico : medicos) {
+            assertEquals(codificadas(secuencial.getCitasPorMedico(medico)), codificadas(paralelo.getCitasPorMedico(medico)));
+            // Con turnos repetidos, en las dos cargas lo conserva la primera cita del archivo
+            assertEquals(codificadas(secuencial.getCitasMedicoEntre(medico, BASE, hasta)),
+                    codificadas(paralelo.getCitasMedicoEntre(medico, BASE, hasta)));
+        }
+        for (Sala sala : salas) {
+            assertEquals(codificadas(secuencial.getCitasPorSala(sala)), codificadas(paralelo.getCitasPorSala(sala)));
+            assertEquals(codificadas(secuencial.getCitasSalaEntre(sala, BASE, hasta)),
+                    codificadas(paralelo.getCitasSalaEntre(sala, BASE, hasta)));
+        }
+        assertTrue(secuencial.getCitasMedicoEntre(medicos.get(0), BASE, hasta).size()
+                < secuencial.getCitasPorMedico(medicos.get(0)).size());
+    }
+
+    // Pocos turnos por recurso para que haya citas repetidas y canceladas en el mismo horario
+    private void escribirCitas(Path archivo, Random random) throws IOException {
+        CitaCsvCodec codec = new CitaCsvCodec();
+        try (BufferedWriter writer = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < CITAS; i++) {
+                EstadoCita estado = random.nextInt(10) == 0 ? EstadoCita.CANCELADA : EstadoCita.PROGRAMADA;
+                codec.escribir(Cita.builder()
+                        .paciente(pacientes.get(random.nextInt(pacientes.size())))
+                        .medico(medicos.get(random.nextInt(medicos.size())))
+                        .sala(salas.get(random.nextInt(salas.size())))
+                        .fechaHora(BASE.plusMinutes(30L * random.nextInt(2000)))
+                        .costo(BigDecimal.valueOf(1000 + random.nextInt(5000)))
+                        .estado(estado)
+                        .observaciones(random.nextBoolean() ? "Control, \"anual\"\nen ayunas" : "")
+                        .build(), writer);
+            }
+        }
+    }
+
+    private static List<String> codificadas(Collection<Cita> citas) {
+        List<String> textos = new ArrayList<>(citas.size());
+        for (Cita cita : citas) {
+            StringBuilder texto = new StringBuilder();
+            CitaCsvCodec.codificar(cita, texto);
+            textos.add(texto.toString());
+        }
+        return textos;
+    }
+}
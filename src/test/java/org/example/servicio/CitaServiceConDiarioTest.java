@@ -0,0 +1,253 @@
+package org.example.servicio;
+
+import org.example.entidades.Cita;
+import org.example.entidades.Departamento;
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.EstadoCita;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Sala;
+import org.example.entidades.TipoSangre;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link CitaServiceConDiario}: al reabrir el directorio se recuperan las mismas citas, en el
+ * mismo orden y con los mismos estados, con o sin compactaciones de por medio y aunque el diario
+ * termine en un registro a medio escribir.
+ */
+class CitaServiceConDiarioTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 8, 0);
+    private static final BigDecimal COSTO = new BigDecimal("1500.00");
+
+    private final List<Paciente> pacientes = new ArrayList<>();
+    private final List<Medico> medicos = new ArrayList<>();
+    private final List<Sala> salas = new ArrayList<>();
+    private final Map<String, Paciente> pacientesPorDni = new HashMap<>();
+    private final Map<String, Medico> medicosPorDni = new HashMap<>();
+    private final Map<String, Sala> salasPorNumero = new HashMap<>();
+
+    @BeforeEach
+    void preparar() {
+        Departamento departamento = Departamento.builder()
+                .nombre("Clínica")
+                .especialidad(EspecialidadMedica.MEDICINA_GENERAL)
+                .build();
+        for (int i = 0; i < 3; i++) {
+            Medico medico = Medico.builder()
+                    .nombre("Medico" + i)
+                    .apellido("Prueba")
+                    .dni(String.valueOf(10_000_000 + i))
+                    .fechaNacimiento(LocalDate.of(1975, 1, 1))
+                    .tipoSangre(TipoSangre.A_POSITIVO)
+                    .numeroMatricula("MP-" + (100_000 + i))
+                    .especialidad(EspecialidadMedica.MEDICINA_GENERAL)
+                    .build();
+            departamento.agregarMedico(medico);
+            medicos.add(medico);
+            medicosPorDni.put(medico.getDni(), medico);
+            Sala sala = departamento.crearSala("S-" + i, "Consultorio");
+            salas.add(sala);
+            salasPorNumero.put(sala.getNumero(), sala);
+        }
+        for (int i = 0; i < 6; i++) {
+            Paciente paciente = Paciente.builder()
+                    .nombre("Paciente" + i)
+                    .apellido("Prueba")
+                    .dni(String.valueOf(20_000_000 + i))
+                    .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                    .tipoSangre(TipoSangre.O_POSITIVO)
+                    .telefono("011-0000-0000")
+                    .direccion("Calle " + i)
+                    .build();
+            pacientes.add(paciente);
+            pacientesPorDni.put(paciente.getDni(), paciente);
+        }
+    }
+
+    @Test
+    void reabrirReproduceAltasYCambiosDeEstado(@TempDir Path directorio) throws Exception {
+        List<String> esperadas;
+        Cita cancelada;
+        try (CitaServiceConDiario servicio = abrir(directorio)) {
+            List<Cita> citas = programar(servicio, 0, 12);
+            List<SolicitudCita> lote = new ArrayList<>();
+            for (int i = 12; i < 20; i++) {
+                lote.add(solicitud(i));
+            }
+            // Repite el turno de la primera del lote: se rechaza y no llega al diario
+            lote.add(solicitud(12));
+            List<ResultadoCita> resultados = servicio.programarCitas(lote);
+            assertFalse(resultados.get(resultados.size() - 1).isAceptada());
+
+            servicio.cambiarEstado(citas.get(1), EstadoCita.COMPLETADA);
+            servicio.cambiarEstado(resultados.get(3).cita(), EstadoCita.NO_ASISTIO);
+            cancelada = citas.get(4);
+            servicio.cambiarEstado(cancelada, EstadoCita.CANCELADA);
+            esperadas = codificadas(servicio.getManager().citasEnOrden());
+        }
+        assertEquals(20, esperadas.size());
+
+        try (CitaServiceConDiario servicio = abrir(directorio)) {
+            List<String> recuperadas = codificadas(servicio.getManager().citasEnOrden());
+            // Las altas sueltas conservan su orden; las del lote vuelven en el de las solicitudes
+            assertEquals(esperadas.subList(0, 12), recuperadas.subList(0, 12));
+            assertEquals(ordenadas(esperadas), ordenadas(recuperadas));
+            // El turno de la cancelada quedó libre también tras reabrir
+            servicio.programarCita(cancelada.getPaciente(), cancelada.getMedico(), cancelada.getSala(),
+                    cancelada.getFechaHora(), COSTO);
+        }
+    }
+
+    @Test
+    void unRegistroAMedioEscribirSeDescartaAlAbrir(@TempDir Path directorio) throws Exception {
+        List<String> esperadas;
+        try (CitaServiceConDiario servicio = abrir(directorio)) {
+            programar(servicio, 0, 5);
+            esperadas = codificadas(servicio.getManager().citasEnOrden());
+        }
+        // Se pierden los últimos bytes del último alta, como en una caída durante la escritura
+        Path diario = directorio.resolve("diario-0.log");
+        try (FileChannel canal = FileChannel.open(diario, StandardOpenOption.WRITE)) {
+            canal.truncate(canal.size() - 3);
+        }
+
+        try (CitaServiceConDiario servicio = abrir(directorio)) {
+            assertEquals(esperadas.subList(0, 4), codificadas(servicio.getManager().citasEnOrden()));
+            programar(servicio, 5, 6);
+            esperadas = codificadas(servicio.getManager().citasEnOrden());
+        }
+        // Basura al final: un encabezado que anuncia más bytes de los que hay
+        try (FileChannel canal = FileChannel.open(diario, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            canal.write(ByteBuffer.allocate(12).putInt(100).putInt(0x12345678).putInt(0x41424344).flip());
+        }
+
+        try (CitaServiceConDiario servicio = abrir(directorio)) {
+            assertEquals(esperadas, codificadas(servicio.getManager().citasEnOrden()));
+            assertEquals(5, esperadas.size());
+        }
+    }
+
+    @Test
+    void compactarEmpiezaUnaGeneracionNueva(@TempDir Path directorio) throws Exception {
+        List<String> esperadas;
+        try (CitaServiceConDiario servicio = abrir(directorio)) {
+            List<Cita> citas = programar(servicio, 0, 10);
+            servicio.cambiarEstado(citas.get(2), EstadoCita.CANCELADA);
+            servicio.compactar();
+
+            assertTrue(Files.exists(directorio.resolve("citas-1.csv")));
+            assertTrue(Files.exists(directorio.resolve("diario-1.log")));
+            assertFalse(Files.exists(directorio.resolve("diario-0.log")));
+
+            // Después de compactar, los cambios sobre citas anteriores usan su posición en el snapshot
+            programar(servicio, 10, 15);
+            servicio.cambiarEstado(citas.get(7), EstadoCita.COMPLETADA);
+            esperadas = codificadas(servicio.getManager().citasEnOrden());
+        }
+
+        try (CitaServiceConDiario servicio = abrir(directorio)) {
+            assertEquals(esperadas, codificadas(servicio.getManager().citasEnOrden()));
+        }
+    }
+
+    @Test
+    void laCompactacionEnSegundoPlanoConservaLasCitas(@TempDir Path directorio) throws Exception {
+        List<String> esperadas;
+        try (CitaServiceConDiario servicio = abrir(directorio, 4)) {
+            programar(servicio, 0, 18);
+            esperadas = codificadas(servicio.getManager().citasEnOrden());
+        }
+        assertFalse(Files.exists(directorio.resolve("diario-0.log")));
+
+        try (CitaServiceConDiario servicio = abrir(directorio)) {
+            assertEquals(esperadas, codificadas(servicio.getManager().citasEnOrden()));
+        }
+    }
+
+    @Test
+    void unAltaQueElDiarioNoAceptaSeCancela(@TempDir Path directorio) throws Exception {
+        CitaServiceConDiario servicio = abrir(directorio);
+        programar(servicio, 0, 2);
+        servicio.close();
+        CitaManager manager = servicio.getManager();
+
+        assertThrows(IllegalStateException.class, () -> programar(servicio, 2, 3));
+        assertThrows(IllegalStateException.class, () -> servicio.programarCitas(List.of(solicitud(3), solicitud(4))));
+
+        List<Cita> citas = manager.citasEnOrden();
+        assertEquals(5, citas.size());
+        for (Cita cita : citas.subList(2, 5)) {
+            assertEquals(EstadoCita.CANCELADA, cita.getEstado());
+        }
+        // Los turnos quedaron libres
+        for (int i = 2; i < 5; i++) {
+            SolicitudCita solicitud = solicitud(i);
+            manager.programarCita(solicitud.paciente(), solicitud.medico(), solicitud.sala(),
+                    solicitud.fechaHora(), solicitud.costo());
+        }
+    }
+
+    private CitaServiceConDiario abrir(Path directorio) throws IOException, CitaException {
+        return CitaServiceConDiario.abrir(directorio, new CitaManager(), pacientesPorDni, medicosPorDni, salasPorNumero);
+    }
+
+    private CitaServiceConDiario abrir(Path directorio, long umbralCompactacion) throws IOException, CitaException {
+        return CitaServiceConDiario.abrir(directorio, new CitaManager(), pacientesPorDni, medicosPorDni, salasPorNumero,
+                Duration.ZERO, umbralCompactacion);
+    }
+
+    private List<Cita> programar(CitaServiceConDiario servicio, int desde, int hasta) throws CitaException {
+        List<Cita> citas = new ArrayList<>();
+        for (int i = desde; i < hasta; i++) {
+            SolicitudCita solicitud = solicitud(i);
+            citas.add(servicio.programarCita(solicitud.paciente(), solicitud.medico(), solicitud.sala(),
+                    solicitud.fechaHora(), solicitud.costo()));
+        }
+        return citas;
+    }
+
+    // Turnos de una hora, rotando médico y sala juntos, sin superposiciones
+    private SolicitudCita solicitud(int i) {
+        return new SolicitudCita(pacientes.get(i % pacientes.size()), medicos.get(i % medicos.size()),
+                salas.get(i % salas.size()), BASE.plusHours(i), COSTO);
+    }
+
+    private static List<String> ordenadas(List<String> textos) {
+        List<String> copia = new ArrayList<>(textos);
+        Collections.sort(copia);
+        return copia;
+    }
+
+    private static List<String> codificadas(List<Cita> citas) {
+        List<String> textos = new ArrayList<>(citas.size());
+        for (Cita cita : citas) {
+            StringBuilder texto = new StringBuilder();
+            CitaCsvCodec.codificar(cita, texto);
+            textos.add(texto.toString());
+        }
+        return textos;
+    }
+}
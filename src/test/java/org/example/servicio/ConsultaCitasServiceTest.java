@@ -0,0 +1,170 @@
+package org.example.servicio;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.example.entidades.Cita;
+import org.example.entidades.Departamento;
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.Hospital;
+import org.example.entidades.Medico;
+import org.example.entidades.Paciente;
+import org.example.entidades.Sala;
+import org.example.entidades.TipoSangre;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Cada listado de {@link ConsultaCitasService} ejecuta una sola sentencia, tenga el recurso 10
+ * o 10.000 citas.
+ */
+class ConsultaCitasServiceTest {
+    private static final int POCAS = 10;
+    private static final int MUCHAS = 10_000;
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+    private static EntityManagerFactory emf;
+    private static Statistics estadisticas;
+    private static ConsultaCitasService consultas;
+    private static Recursos pocas;
+    private static Recursos muchas;
+
+    private record Recursos(Paciente paciente, Medico medico, Sala sala) {
+    }
+
+    @BeforeAll
+    static void sembrar() {
+        Map<String, Object> propiedades = PerfilPersistencia.TEST.propiedades("jdbc:h2:mem:consultas-citas;DB_CLOSE_DELAY=-1");
+        // Sin caché: cada listado debe llegar a la base para contar sus sentencias
+        propiedades.put("jakarta.persistence.sharedCache.mode", "NONE");
+        propiedades.put("hibernate.cache.use_second_level_cache", "false");
+        propiedades.put("hibernate.cache.use_query_cache", "false");
+        propiedades.put("hibernate.generate_statistics", "true");
+        propiedades.put("hibernate.jdbc.batch_size", "50");
+        emf = Persistence.createEntityManagerFactory("hospital-persistence-unit", propiedades);
+        estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        consultas = new ConsultaCitasService(emf);
+
+        Hospital hospital = Hospital.builder()
+                .nombre("Hospital de Prueba")
+                .direccion("Av. Siempre Viva 742")
+                .telefono("011-0000-0000")
+                .build();
+        Departamento departamento = Departamento.builder()
+                .nombre("Clínica")
+                .especialidad(EspecialidadMedica.MEDICINA_GENERAL)
+                .build();
+        hospital.agregarDepartamento(departamento);
+        pocas = crearRecursos(hospital, departamento, 1);
+        muchas = crearRecursos(hospital, departamento, 2);
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.persist(hospital);
+            persistirCitas(em, pocas, POCAS);
+            persistirCitas(em, muchas, MUCHAS);
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    @AfterAll
+    static void cerrar() {
+        emf.close();
+    }
+
+    @Test
+    void listarPorMedicoUsaUnaSentencia() {
+        assertEquals(1, sentencias(() -> consultas.listarCitasPorMedico(pocas.medico()), POCAS));
+        assertEquals(1, sentencias(() -> consultas.listarCitasPorMedico(muchas.medico()), MUCHAS));
+    }
+
+    @Test
+    void listarPorPacienteUsaUnaSentencia() {
+        assertEquals(1, sentencias(() -> consultas.listarCitasPorPaciente(pocas.paciente()), POCAS));
+        assertEquals(1, sentencias(() -> consultas.listarCitasPorPaciente(muchas.paciente()), MUCHAS));
+    }
+
+    @Test
+    void paginasUsanUnaSentencia() {
+        LocalDateTime hasta = BASE.plusYears(1);
+        assertEquals(1, sentencias(() -> consultas.listarCitasPorMedico(pocas.medico(), BASE, hasta, 0, 100), POCAS));
+        assertEquals(1, sentencias(() -> consultas.listarCitasPorMedico(muchas.medico(), BASE, hasta, 0, 100), 100));
+        assertEquals(1, sentencias(() -> consultas.listarCitasPorSala(pocas.sala(), BASE, hasta, 0, 100), POCAS));
+        assertEquals(1, sentencias(() -> consultas.listarCitasPorSala(muchas.sala(), BASE, hasta, 0, 100), 100));
+        assertEquals(1, sentencias(() -> consultas.listarCitasPorPaciente(muchas.paciente(), BASE, hasta, 99, 100), 100));
+    }
+
+    @Test
+    void listadosGeneralesUsanUnaSentencia() {
+        assertEquals(1, sentencias(() -> consultas.listarCitasEntre(BASE, BASE.plusMinutes(30L * POCAS)), 2 * POCAS));
+        assertEquals(1, sentencias(() -> consultas.listarCitas(), POCAS + MUCHAS));
+    }
+
+    @Test
+    void contarUsaUnaSentencia() {
+        estadisticas.clear();
+        assertEquals(MUCHAS, consultas.contarCitasPorMedico(muchas.medico()));
+        assertEquals(POCAS, consultas.contarCitasPorSala(pocas.sala(), BASE, BASE.plusYears(1)));
+        assertEquals(2, estadisticas.getPrepareStatementCount());
+    }
+
+    // Sentencias preparadas durante el listado, comprobando de paso que devuelva todas las filas
+    private static long sentencias(Supplier<? extends Collection<?>> listado, int filasEsperadas) {
+        estadisticas.clear();
+        assertEquals(filasEsperadas, listado.get().size());
+        return estadisticas.getPrepareStatementCount();
+    }
+
+    private static Recursos crearRecursos(Hospital hospital, Departamento departamento, int indice) {
+        Medico medico = Medico.builder()
+                .nombre("Medico" + indice)
+                .apellido("Prueba")
+                .dni(String.valueOf(10_000_000 + indice))
+                .fechaNacimiento(LocalDate.of(1975, 1, 1))
+                .tipoSangre(TipoSangre.A_POSITIVO)
+                .numeroMatricula("MP-" + (100_000 + indice))
+                .especialidad(EspecialidadMedica.MEDICINA_GENERAL)
+                .build();
+        departamento.agregarMedico(medico);
+        Sala sala = departamento.crearSala("S-" + indice, "Consultorio");
+        Paciente paciente = Paciente.builder()
+                .nombre("Paciente" + indice)
+                .apellido("Prueba")
+                .dni(String.valueOf(20_000_000 + indice))
+                .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                .tipoSangre(TipoSangre.O_POSITIVO)
+                .telefono("011-0000-0000")
+                .direccion("Calle " + indice)
+                .build();
+        hospital.agregarPaciente(paciente);
+        return new Recursos(paciente, medico, sala);
+    }
+
+    private static void persistirCitas(EntityManager em, Recursos recursos, int cantidad) {
+        BigDecimal costo = new BigDecimal("1000.00");
+        for (int i = 0; i < cantidad; i++) {
+            em.persist(Cita.builder()
+                    .paciente(recursos.paciente())
+                    .medico(recursos.medico())
+                    .sala(recursos.sala())
+                    .fechaHora(BASE.plusMinutes(30L * i))
+                    .costo(costo)
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.servicio;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.example.entidades.EspecialidadMedica;
+import org.example.entidades.EstadoCita;
+import org.example.entidades.Medico;
+import org.example.entidades.Sala;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Comprueba con {@code EXPLAIN} de H2 que las consultas por las que se buscan citas, médicos,
+ * pacientes y salas usen un índice: ejecuta cada consulta, captura el SQL que genera Hibernate
+ * y falla si algún plan recorre una tabla completa ({@code tableScan}).
+ */
+class PlanesConsultasTest {
+    private static final LocalDateTime DESDE = LocalDateTime.of(2030, 1, 1, 8, 0);
+    private static final LocalDateTime HASTA = DESDE.plusDays(1);
+
+    private static EntityManagerFactory emf;
+
+    record ConsultaVerificada(String nombre, String consulta, boolean nombrada,
+                              Map<String, Object> parametros) {
+
+        static ConsultaVerificada jpql(String nombre, String jpql, Map<String, Object> parametros) {
+            return new ConsultaVerificada(nombre, jpql, false, parametros);
+        }
+
+        static ConsultaVerificada nombrada(String nombre, String consulta, Map<String, Object> parametros) {
+            return new ConsultaVerificada(nombre, consulta, true, parametros);
+        }
+
+        @Override
+        public String toString() {
+            return nombre;
+        }
+    }
+
+    static List<ConsultaVerificada> consultas() {
+        return List.of(
+                ConsultaVerificada.jpql("citas de médicos en un rango",
+                        "SELECT c FROM Cita c WHERE c.medico.id IN :ids"
+                                + " AND c.fechaHora > :desde AND c.fechaHora < :hasta AND c.estado <> :cancelada",
+                        Map.of("ids", List.of(1L, 2L), "desde", DESDE, "hasta", HASTA,
+                                "cancelada", EstadoCita.CANCELADA)),
+                ConsultaVerificada.jpql("citas de salas en un rango",
+                        "SELECT c FROM Cita c WHERE c.sala.id IN :ids"
+                                + " AND c.fechaHora > :desde AND c.fechaHora < :hasta AND c.estado <> :cancelada",
+                        Map.of("ids", List.of(1L, 2L), "desde", DESDE, "hasta", HASTA,
+                                "cancelada", EstadoCita.CANCELADA)),
+                ConsultaVerificada.jpql("citas de un paciente",
+                        "SELECT c FROM Cita c WHERE c.paciente.id = :id ORDER BY c.fechaHora",
+                        Map.of("id", 1L)),
+                ConsultaVerificada.jpql("citas por estado desde una fecha",
+                        "SELECT c FROM Cita c WHERE c.estado = :estado AND c.fechaHora >= :desde",
+                        Map.of("estado", EstadoCita.PROGRAMADA, "desde", DESDE)),
+                ConsultaVerificada.jpql("médicos por especialidad",
+                        "SELECT m FROM Medico m WHERE m.especialidad = :especialidad",
+                        Map.of("especialidad", EspecialidadMedica.CARDIOLOGIA)),
+                ConsultaVerificada.nombrada("médico por DNI", Medico.POR_DNI, Map.of("dni", "12345678")),
+                ConsultaVerificada.nombrada("sala por número", Sala.POR_NUMERO, Map.of("numero", "S-1")),
+                ConsultaVerificada.jpql("paciente por DNI",
+                        "SELECT p FROM Paciente p WHERE p.dni = :dni", Map.of("dni", "12345678")),
+                ConsultaVerificada.jpql("últimas entradas de una historia clínica",
+                        "SELECT e FROM EntradaClinica e WHERE e.historiaClinica.id = :historia"
+                                + " ORDER BY e.fechaRegistro DESC, e.id DESC",
+                        Map.of("historia", 1L)));
+    }
+
+    @BeforeAll
+    static void crearBase() {
+        Map<String, Object> propiedades = PerfilPersistencia.TEST.propiedades("jdbc:h2:mem:planes;DB_CLOSE_DELAY=-1");
+        // Sin caché: cada consulta debe llegar a la base para capturar su SQL
+        propiedades.put("jakarta.persistence.sharedCache.mode", "NONE");
+        propiedades.put("hibernate.cache.use_second_level_cache", "false");
+        propiedades.put("hibernate.cache.use_query_cache", "false");
+        emf = Persistence.createEntityManagerFactory("hospital-persistence-unit", propiedades);
+    }
+
+    @AfterAll
+    static void cerrar() {
+        emf.close();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("consultas")
+    void usaIndices(ConsultaVerificada consulta) {
+        List<String> sentencias = new ArrayList<>();
+        try (Session session = emf.unwrap(SessionFactory.class).withOptions()
+                .statementInspector(sql -> {
+                    sentencias.add(sql);
+                    return sql;
+                })
+                .openSession()) {
+            Query<Object> query = consulta.nombrada()
+                    ? session.createNamedQuery(consulta.consulta(), Object.class)
+                    : session.createQuery(consulta.consulta(), Object.class);
+            consulta.parametros().forEach(query::setParameter);
+            query.getResultList();
+
+            assertFalse(sentencias.isEmpty(), "La consulta no llegó a la base");
+            for (String sql : sentencias) {
+                String plan = session.doReturningWork(conexion -> explicar(conexion, sql));
+                assertFalse(plan.contains(".tableScan"), () -> "Recorrido completo:\n" + plan);
+            }
+        }
+    }
+
+    private static String explicar(Connection conexion, String sql) throws SQLException {
+        try (PreparedStatement explain = conexion.prepareStatement("EXPLAIN " + sql)) {
+            // El plan no depende de los valores; basta con que todos los parámetros estén fijados
+            int parametros = explain.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parametros; i++) {
+                explain.setObject(i, null);
+            }
+            try (ResultSet resultado = explain.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (resultado.next()) {
+                    plan.append(resultado.getString(1)).append('\n');
+                }
+                return plan.toString();
+            }
+        }
+    }
+}